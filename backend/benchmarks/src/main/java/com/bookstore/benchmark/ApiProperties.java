@@ -0,0 +1,35 @@
+package com.bookstore.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// Reads the API's own application.properties so benchmarks run at the configured settings
+final class ApiProperties {
+
+    private static final Properties PROPERTIES = load();
+
+    private ApiProperties() {
+    }
+
+    static String get(String name) {
+        String value = PROPERTIES.getProperty(name);
+        if (value == null) {
+            throw new IllegalStateException("Missing property in application.properties: " + name);
+        }
+        return value;
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = ApiProperties.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("application.properties not found on the classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read application.properties", e);
+        }
+        return properties;
+    }
+}
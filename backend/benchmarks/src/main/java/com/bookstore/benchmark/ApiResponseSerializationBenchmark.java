@@ -0,0 +1,45 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.entity.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<Book>> response;
+
+    @Setup
+    public void setUp() {
+        // Same builder Spring Boot uses for the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = ApiResponse.success("Books retrieved successfully", CatalogFixtures.books(catalogSize));
+    }
+
+    // Streams straight to the response body, as the message converter does
+    @Benchmark
+    public void writeToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+    }
+
+    @Benchmark
+    public byte[] writeAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
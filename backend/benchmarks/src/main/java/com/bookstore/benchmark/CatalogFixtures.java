@@ -0,0 +1,75 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.entity.Book;
+import com.bookstore.entity.CartItem;
+import com.bookstore.entity.Category;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class CatalogFixtures {
+
+    private static final String[] CATEGORY_NAMES = {
+            "Fiction", "Non-Fiction", "Science", "History", "Business",
+            "Self-Help", "Technology", "Children", "Romance", "Mystery"
+    };
+
+    private CatalogFixtures() {
+    }
+
+    // Fixed seed so every run serializes the same catalog
+    static List<Book> books(int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            Category category = new Category();
+            category.setCategoryId(i + 1);
+            category.setCategoryName(CATEGORY_NAMES[i]);
+            category.setDescription(CATEGORY_NAMES[i] + " books");
+            category.setCreatedAt(now);
+            categories.add(category);
+        }
+
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Book book = new Book();
+            book.setBookId(i);
+            book.setTitle("Book title number " + i);
+            book.setAuthor("Author " + (i % 997));
+            book.setCategory(categories.get(i % categories.size()));
+            book.setDescription("A description of book " + i + " long enough to look like a real blurb on the catalog page.");
+            book.setPrice(BigDecimal.valueOf(50_000 + random.nextInt(450_000), 0).setScale(2));
+            book.setStockQuantity(random.nextInt(200));
+            book.setIsbn(String.format("978%010d", i));
+            book.setPublisher("Publisher " + (i % 50));
+            book.setPublicationYear(1990 + random.nextInt(35));
+            book.setPages(100 + random.nextInt(900));
+            book.setLanguage("Vietnamese");
+            book.setCoverImageUrl("https://cdn.example.com/covers/" + i + ".jpg");
+            book.setIsActive(true);
+            book.setCreatedAt(now);
+            book.setUpdatedAt(now);
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<CartItem> cartItems(int lines) {
+        List<CartItem> items = new ArrayList<>(lines);
+        int quantity = 1;
+        for (Book book : books(lines)) {
+            CartItem item = new CartItem();
+            item.setCartItemId(book.getBookId());
+            item.setBook(book);
+            item.setQuantity(quantity);
+            quantity = quantity % 5 + 1;
+            items.add(item);
+        }
+        return items;
+    }
+}
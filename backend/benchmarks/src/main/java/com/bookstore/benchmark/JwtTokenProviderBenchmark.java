@@ -0,0 +1,51 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        // The provider is normally filled by @Value
+        setField("jwtSecret", ApiProperties.get("jwt.secret"));
+        setField("jwtExpiration", Long.parseLong(ApiProperties.get("jwt.expiration")));
+        token = tokenProvider.generateToken("reader@bookstore.vn");
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtTokenProvider.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, tokenProvider, value);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken("reader@bookstore.vn");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    // What JwtAuthenticationFilter does on every authenticated request
+    @Benchmark
+    public String validateAndReadSubject() {
+        return tokenProvider.validateToken(token) ? tokenProvider.getUserEmailFromToken(token) : null;
+    }
+}
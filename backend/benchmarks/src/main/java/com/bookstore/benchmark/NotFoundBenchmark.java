@@ -0,0 +1,58 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.exception.GlobalExceptionHandler;
+import com.bookstore.exception.NotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+// A lookup of a missing id, thrown stackDepth frames below the controller and turned into a 404.
+// A request reaches a service method well over a hundred frames deep once the servlet container, the
+// security filter chain and the Spring proxies are counted, and filling in the stack trace walks all of them.
+// Spring's own exception resolver lookup on the advice path is not included.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"20", "150"})
+    public int stackDepth;
+
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+    private int bookId;
+
+    // Before: a plain RuntimeException caught by the controller's catch (Exception e)
+    @Benchmark
+    public ResponseEntity<?> runtimeException() {
+        try {
+            return ResponseEntity.ok(findBook(stackDepth, false));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // After: a stackless NotFoundException mapped by the global handler
+    @Benchmark
+    public ResponseEntity<?> notFoundException() {
+        try {
+            return ResponseEntity.ok(findBook(stackDepth, true));
+        } catch (NotFoundException e) {
+            return exceptionHandler.handleNotFound(e);
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private Object findBook(int depth, boolean stackless) {
+        if (depth > 0) {
+            return findBook(depth - 1, stackless);
+        }
+        int id = ++bookId;
+        throw stackless
+                ? new NotFoundException("Book not found with id: " + id)
+                : new RuntimeException("Book not found with id: " + id);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.entity.CartItem;
+import com.bookstore.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int cartLines;
+
+    private List<CartItem> cartItems;
+
+    @Setup
+    public void setUp() {
+        cartItems = CatalogFixtures.cartItems(cartLines);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        return OrderService.calculateTotalAmount(cartItems);
+    }
+}
@@ -0,0 +1,342 @@
+package com.bookstore.datagen;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Appends synthetic users, categories, books, orders, reviews and carts to an existing bookstore schema.
+// Ids continue after the current maximum, so the generator can run on top of the seed data or a previous run.
+public final class DataGenerator {
+
+    // BCrypt (strength 10) of "password123", shared by every generated customer
+    private static final String PASSWORD_HASH = "$2a$10$BMbUpDZbRV7N4CLatcsuWOBHtLYEr1d31dbdtBXbIo0454oFK1kVy";
+
+    private static final String[] PAYMENT_METHODS = {"COD", "COD", "COD", "COD", "COD", "VNPAY", "VNPAY", "MOMO", "MOMO"};
+    private static final String[] OPEN_STATUSES = {"PENDING", "CONFIRMED", "PROCESSING", "SHIPPED"};
+
+    private final Connection connection;
+    private final GeneratorConfig config;
+    private final SqlDialect dialect;
+    private final Random random;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private final Map<String, Long> rowCounts = new LinkedHashMap<>();
+    private long uncommittedRows;
+
+    private int[] userIds;
+    private int[] categoryIds;
+    private String[] categoryNames;
+    private int[] bookIds;
+    private int[] bookPrices;
+    private int[] bookCategoryIds;
+
+    private DataGenerator(Connection connection, GeneratorConfig config) throws SQLException {
+        this.connection = connection;
+        this.config = config;
+        this.dialect = SqlDialect.forUrl(connection.getMetaData().getURL());
+        this.random = new Random(config.seed);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        GeneratorConfig config = GeneratorConfig.parse(args);
+        System.out.println("Generating " + config.describe());
+        try (Connection connection = DriverManager.getConnection(config.url, config.username, config.password)) {
+            long startedAt = System.nanoTime();
+            Map<String, Long> rowCounts = generate(connection, config);
+            long total = rowCounts.values().stream().mapToLong(Long::longValue).sum();
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            System.out.printf("%-12s %,12d rows %8.1fs %,10.0f rows/s%n", "total", total, seconds, total / seconds);
+        }
+    }
+
+    // Runs in its own transactions on the given connection and restores its auto-commit mode afterwards
+    public static Map<String, Long> generate(Connection connection, GeneratorConfig config) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            DataGenerator generator = new DataGenerator(connection, config);
+            generator.insertUsers();
+            generator.insertCategories();
+            generator.insertBooks();
+            ZipfSampler bookPopularity = new ZipfSampler(generator.bookIds, config.bookSkew, generator.random);
+            generator.insertOrders(bookPopularity);
+            generator.insertReviews(bookPopularity);
+            generator.insertCarts(bookPopularity);
+            connection.commit();
+            return generator.rowCounts;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertUsers() throws SQLException {
+        long startedAt = System.nanoTime();
+        int firstId = nextId("users", "user_id");
+        userIds = new int[config.users];
+        dialect.beforeExplicitIds(connection, "users");
+        try (RowWriter users = writer(null, "users", "user_id", "email", "password_hash", "full_name",
+                "phone_number", "address", "role", "created_at", "updated_at", "is_active")) {
+            for (int i = 0; i < config.users; i++) {
+                int userId = firstId + i;
+                LocalDateTime createdAt = timeInHistory(i, config.users);
+                users.add(userId, "khachhang" + userId + "@bookstore.test", PASSWORD_HASH,
+                        VietnameseText.fullName(random), VietnameseText.phoneNumber(random),
+                        VietnameseText.address(random), "CUSTOMER", createdAt, createdAt, random.nextInt(100) != 0);
+                userIds[i] = userId;
+                checkpoint();
+            }
+            report("users", users, startedAt);
+        }
+        dialect.afterExplicitIds(connection, "users", "user_id", firstId + config.users);
+    }
+
+    private void insertCategories() throws SQLException {
+        long startedAt = System.nanoTime();
+        int firstId = nextId("categories", "category_id");
+        Set<String> takenNames = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT category_name FROM categories")) {
+            while (rows.next()) {
+                takenNames.add(rows.getString(1));
+            }
+        }
+
+        categoryIds = new int[config.categories];
+        categoryNames = new String[config.categories];
+        dialect.beforeExplicitIds(connection, "categories");
+        try (RowWriter categories = writer(null, "categories", "category_id", "category_name", "description",
+                "created_at")) {
+            for (int i = 0; i < config.categories; i++) {
+                String baseName = VietnameseText.CATEGORY_NAMES.get(i % VietnameseText.CATEGORY_NAMES.size());
+                String name = baseName;
+                for (int suffix = 2; !takenNames.add(name); suffix++) {
+                    name = baseName + " (" + suffix + ")";
+                }
+                categoryIds[i] = firstId + i;
+                categoryNames[i] = name;
+                categories.add(categoryIds[i], name, "Sách " + baseName.toLowerCase(), timeInHistory(0, 1));
+            }
+            report("categories", categories, startedAt);
+        }
+        dialect.afterExplicitIds(connection, "categories", "category_id", firstId + config.categories);
+    }
+
+    private void insertBooks() throws SQLException {
+        long startedAt = System.nanoTime();
+        int firstId = nextId("books", "book_id");
+        // A shared pool gives prolific authors, which is what author search has to cope with
+        String[] authors = new String[Math.max(50, config.books / 8)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = VietnameseText.fullName(random);
+        }
+        int[] categoryIndexes = new int[config.categories];
+        for (int i = 0; i < categoryIndexes.length; i++) {
+            categoryIndexes[i] = i;
+        }
+        ZipfSampler categorySizes = new ZipfSampler(categoryIndexes, 0.8, random);
+
+        bookIds = new int[config.books];
+        bookPrices = new int[config.books];
+        bookCategoryIds = new int[config.books];
+        dialect.beforeExplicitIds(connection, "books");
+        try (RowWriter books = writer(null, "books", "book_id", "title", "author", "category_id", "description",
+                "price", "stock_quantity", "isbn", "publisher", "publication_year", "pages", "language",
+                "created_at", "updated_at", "is_active")) {
+            for (int i = 0; i < config.books; i++) {
+                int bookId = firstId + i;
+                int category = categorySizes.sample(random);
+                String title = VietnameseText.bookTitle(random);
+                // Log-uniform between 35,000 and 450,000 VND, rounded to the thousand
+                int price = (int) Math.round(Math.exp(Math.log(35) + random.nextDouble() * Math.log(450.0 / 35))) * 1000;
+                int stock = random.nextInt(20) == 0 ? 0 : 5 + random.nextInt(496);
+                LocalDateTime createdAt = timeInHistory(i, config.books);
+                books.add(bookId, title, VietnameseText.pick(random, authors), categoryIds[category],
+                        VietnameseText.bookDescription(title, categoryNames[category]), BigDecimal.valueOf(price),
+                        stock, String.format("979%010d", bookId), VietnameseText.pick(random, VietnameseText.PUBLISHERS),
+                        2026 - (int) (31 * random.nextDouble() * random.nextDouble()), 80 + random.nextInt(821),
+                        random.nextInt(100) < 85 ? "Vietnamese" : "English", createdAt, createdAt,
+                        random.nextInt(100) >= 3);
+                bookIds[i] = bookId;
+                bookPrices[i] = price;
+                bookCategoryIds[i] = categoryIds[category];
+                checkpoint();
+            }
+            report("books", books, startedAt);
+        }
+        dialect.afterExplicitIds(connection, "books", "book_id", firstId + config.books);
+    }
+
+    private void insertOrders(ZipfSampler bookPopularity) throws SQLException {
+        long startedAt = System.nanoTime();
+        int firstId = nextId("orders", "order_id");
+        int firstBookId = bookIds[0];
+        ZipfSampler customers = new ZipfSampler(userIds, config.customerSkew, random);
+        int[] lineBookIds = new int[8];
+        int[] lineQuantities = new int[8];
+
+        dialect.beforeExplicitIds(connection, "orders");
+        try (RowWriter orders = writer(null, "orders", "order_id", "user_id", "order_date", "total_amount",
+                "status", "payment_method", "payment_status", "shipping_address", "phone_number", "created_at",
+                "updated_at");
+             RowWriter items = writer(orders, "order_items", "order_id", "book_id", "category_id", "quantity",
+                     "price_at_purchase", "subtotal")) {
+            for (int i = 0; i < config.orders; i++) {
+                int lines = 1;
+                while (lines < lineBookIds.length && random.nextDouble() < 0.6) {
+                    lines++;
+                }
+                long total = 0;
+                for (int line = 0; line < lines; line++) {
+                    lineBookIds[line] = distinctBook(bookPopularity, lineBookIds, line);
+                    lineQuantities[line] = random.nextInt(100) < 80 ? 1 : random.nextInt(100) < 75 ? 2 : 3;
+                    total += (long) bookPrices[lineBookIds[line] - firstBookId] * lineQuantities[line];
+                }
+
+                // Orders older than two weeks have settled; recent ones are spread over the whole lifecycle
+                LocalDateTime orderDate = timeInHistory(i, config.orders);
+                boolean settled = orderDate.isBefore(now.minusDays(14));
+                String paymentMethod = VietnameseText.pick(random, PAYMENT_METHODS);
+                String status = random.nextInt(100) < 6 ? "CANCELLED"
+                        : settled || random.nextInt(3) == 0 ? "DELIVERED" : VietnameseText.pick(random, OPEN_STATUSES);
+                String paymentStatus = switch (status) {
+                    case "DELIVERED" -> "PAID";
+                    case "CANCELLED" -> paymentMethod.equals("COD") ? "UNPAID" : "REFUNDED";
+                    default -> paymentMethod.equals("COD") ? "UNPAID" : "PAID";
+                };
+                LocalDateTime updatedAt = status.equals("PENDING") ? orderDate
+                        : orderDate.plusHours(2 + random.nextInt(24 * 5));
+
+                int orderId = firstId + i;
+                orders.add(orderId, customers.sample(random), orderDate, BigDecimal.valueOf(total), status,
+                        paymentMethod, paymentStatus, VietnameseText.address(random),
+                        VietnameseText.phoneNumber(random), orderDate, updatedAt.isAfter(now) ? now : updatedAt);
+                for (int line = 0; line < lines; line++) {
+                    int price = bookPrices[lineBookIds[line] - firstBookId];
+                    items.add(orderId, lineBookIds[line], bookCategoryIds[lineBookIds[line] - firstBookId],
+                            lineQuantities[line], BigDecimal.valueOf(price),
+                            BigDecimal.valueOf((long) price * lineQuantities[line]));
+                    checkpoint();
+                }
+                checkpoint();
+            }
+            report("orders", orders, startedAt);
+            report("order_items", items, startedAt);
+        }
+        dialect.afterExplicitIds(connection, "orders", "order_id", firstId + config.orders);
+    }
+
+    private void insertReviews(ZipfSampler bookPopularity) throws SQLException {
+        long startedAt = System.nanoTime();
+        // (user_id, book_id) is unique; popular books fill up first, so give up after a bounded number of misses
+        Set<Long> reviewed = new HashSet<>();
+        long attempts = 0;
+        try (RowWriter reviews = writer(null, "reviews", "book_id", "user_id", "rating", "comment",
+                "created_at", "updated_at")) {
+            while (reviewed.size() < config.reviews && attempts++ < config.reviews * 3L) {
+                int bookId = bookPopularity.sample(random);
+                int userId = userIds[random.nextInt(userIds.length)];
+                if (!reviewed.add(((long) userId << 32) | bookId)) {
+                    continue;
+                }
+                int roll = random.nextInt(100);
+                int rating = roll < 4 ? 1 : roll < 10 ? 2 : roll < 25 ? 3 : roll < 60 ? 4 : 5;
+                LocalDateTime createdAt = now.minusSeconds((long) (random.nextDouble() * config.historyDays * 86_400L));
+                reviews.add(bookId, userId, rating, VietnameseText.reviewComment(random, rating), createdAt, createdAt);
+                checkpoint();
+            }
+            report("reviews", reviews, startedAt);
+        }
+    }
+
+    private void insertCarts(ZipfSampler bookPopularity) throws SQLException {
+        long startedAt = System.nanoTime();
+        // Distinct customers, with lines added over the last 60 days so the expiry sweeper has work
+        int[] customers = userIds.clone();
+        int[] lineBookIds = new int[10];
+        try (RowWriter cartItems = writer(null, "cart_items", "user_id", "book_id", "quantity", "added_at")) {
+            for (int i = 0; i < config.carts; i++) {
+                int pick = i + random.nextInt(customers.length - i);
+                int userId = customers[pick];
+                customers[pick] = customers[i];
+                customers[i] = userId;
+
+                int lines = 1;
+                while (lines < lineBookIds.length && random.nextDouble() < 0.55) {
+                    lines++;
+                }
+                LocalDateTime lastActive = now.minusSeconds((long) (random.nextDouble() * 60 * 86_400L));
+                for (int line = 0; line < lines; line++) {
+                    lineBookIds[line] = distinctBook(bookPopularity, lineBookIds, line);
+                    cartItems.add(userId, lineBookIds[line], random.nextInt(4) == 0 ? 2 : 1,
+                            lastActive.minusMinutes(random.nextInt(120)));
+                    checkpoint();
+                }
+            }
+            report("cart_items", cartItems, startedAt);
+        }
+    }
+
+    private RowWriter writer(RowWriter parent, String table, String... columns) {
+        return new RowWriter(connection, dialect, config.rowsPerStatement, parent, table, columns);
+    }
+
+    // Draws a book not already among the first `count` picks; falls back to the next id when the catalog is tiny
+    private int distinctBook(ZipfSampler bookPopularity, int[] picked, int count) {
+        int bookId = bookPopularity.sample(random);
+        for (int attempt = 0; contains(picked, count, bookId); attempt++) {
+            bookId = attempt < 10 ? bookPopularity.sample(random)
+                    : bookIds[(bookId - bookIds[0] + 1) % bookIds.length];
+        }
+        return bookId;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Row i of n, spread over the history window with more rows towards the present, in id order
+    private LocalDateTime timeInHistory(int i, int n) {
+        double fraction = Math.sqrt((i + random.nextDouble()) / n);
+        long historySeconds = config.historyDays * 86_400L;
+        return now.minusSeconds(historySeconds - (long) (fraction * historySeconds));
+    }
+
+    private int nextId(String table, String idColumn) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table)) {
+            rows.next();
+            return rows.getInt(1) + 1;
+        }
+    }
+
+    private void checkpoint() throws SQLException {
+        if (++uncommittedRows >= config.commitRows) {
+            connection.commit();
+            uncommittedRows = 0;
+        }
+    }
+
+    private void report(String table, RowWriter writer, long startedAt) throws SQLException {
+        writer.flush();
+        long rows = writer.writtenRows();
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        rowCounts.put(table, rows);
+        System.out.printf("%-12s %,12d rows %8.1fs %,10.0f rows/s%n", table, rows, seconds, rows / seconds);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bookstore.datagen;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Options come as --name=value arguments; --scale multiplies every row count that is not given explicitly
+public final class GeneratorConfig {
+
+    final String url;
+    final String username;
+    final String password;
+    final int users;
+    final int categories;
+    final int books;
+    final int orders;
+    final int reviews;
+    final int carts;
+    final int historyDays;
+    final double bookSkew;
+    final double customerSkew;
+    final int rowsPerStatement;
+    final int commitRows;
+    final long seed;
+
+    private GeneratorConfig(Map<String, String> options) {
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1"));
+        url = options.getOrDefault("url",
+                "jdbc:sqlserver://localhost:1433;databaseName=bookstore_db;encrypt=true;trustServerCertificate=true");
+        username = options.getOrDefault("username", "");
+        password = options.getOrDefault("password", "");
+        users = scaledOption(options, "users", 10_000, scale);
+        categories = intOption(options, "categories", VietnameseText.CATEGORY_NAMES.size());
+        books = scaledOption(options, "books", 20_000, scale);
+        orders = scaledOption(options, "orders", 100_000, scale);
+        reviews = scaledOption(options, "reviews", 50_000, scale);
+        carts = Math.min(users, scaledOption(options, "carts", 2_000, scale));
+        historyDays = intOption(options, "history-days", 730);
+        bookSkew = Double.parseDouble(options.getOrDefault("book-skew", "1.0"));
+        customerSkew = Double.parseDouble(options.getOrDefault("customer-skew", "0.6"));
+        rowsPerStatement = intOption(options, "rows-per-statement", 1000);
+        commitRows = intOption(options, "commit-rows", 50_000);
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        if (categories < 1 || books < 1 || users < 1) {
+            throw new IllegalArgumentException("users, categories and books must be at least 1");
+        }
+    }
+
+    public static GeneratorConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return new GeneratorConfig(options);
+    }
+
+    public static GeneratorConfig of(Map<String, String> options) {
+        return new GeneratorConfig(options);
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("users", users);
+        description.put("categories", categories);
+        description.put("books", books);
+        description.put("orders", orders);
+        description.put("reviews", reviews);
+        description.put("carts", carts);
+        description.put("historyDays", historyDays);
+        description.put("bookSkew", bookSkew);
+        description.put("customerSkew", customerSkew);
+        description.put("seed", seed);
+        return description;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static int scaledOption(Map<String, String> options, String name, int base, double scale) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : (int) Math.round(base * scale);
+    }
+}
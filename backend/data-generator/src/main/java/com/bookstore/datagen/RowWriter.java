@@ -0,0 +1,93 @@
+package com.bookstore.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+// Buffers rows and writes them as multi-row INSERT ... VALUES (...), (...) statements.
+// A child writer flushes its parent first so foreign keys always point at rows already written.
+final class RowWriter implements AutoCloseable {
+
+    private final Connection connection;
+    private final String table;
+    private final String[] columns;
+    private final int rowsPerStatement;
+    private final RowWriter parent;
+    private final Object[] buffer;
+    private int bufferedRows;
+    private long writtenRows;
+    private PreparedStatement fullStatement;
+
+    RowWriter(Connection connection, SqlDialect dialect, int requestedRows, RowWriter parent,
+              String table, String... columns) {
+        this.connection = connection;
+        this.table = table;
+        this.columns = columns;
+        this.rowsPerStatement = dialect.rowsPerStatement(columns.length, requestedRows);
+        this.parent = parent;
+        this.buffer = new Object[rowsPerStatement * columns.length];
+    }
+
+    void add(Object... values) throws SQLException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " expects " + columns.length + " values");
+        }
+        System.arraycopy(values, 0, buffer, bufferedRows * columns.length, values.length);
+        if (++bufferedRows == rowsPerStatement) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        if (parent != null) {
+            parent.flush();
+        }
+        if (bufferedRows == rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(insertSql(rowsPerStatement));
+            }
+            write(fullStatement);
+        } else {
+            try (PreparedStatement statement = connection.prepareStatement(insertSql(bufferedRows))) {
+                write(statement);
+            }
+        }
+    }
+
+    long writtenRows() {
+        return writtenRows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+        if (fullStatement != null) {
+            fullStatement.close();
+        }
+    }
+
+    private void write(PreparedStatement statement) throws SQLException {
+        int parameters = bufferedRows * columns.length;
+        for (int i = 0; i < parameters; i++) {
+            statement.setObject(i + 1, buffer[i]);
+        }
+        statement.executeUpdate();
+        writtenRows += bufferedRows;
+        bufferedRows = 0;
+        Arrays.fill(buffer, 0, parameters, null);
+    }
+
+    private String insertSql(int rows) {
+        String placeholders = "(" + String.join(", ", Arrays.stream(columns).map(column -> "?").toList()) + ")";
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(placeholders);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookstore.datagen;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// The few loading differences between the databases the schema ships for
+enum SqlDialect {
+
+    // At most 2100 parameters per statement and 1000 rows per VALUES list
+    SQLSERVER(2000, 1000) {
+        @Override
+        void beforeExplicitIds(Connection connection, String table) throws SQLException {
+            execute(connection, "SET IDENTITY_INSERT " + table + " ON");
+        }
+
+        @Override
+        void afterExplicitIds(Connection connection, String table, String idColumn, long nextId) throws SQLException {
+            execute(connection, "SET IDENTITY_INSERT " + table + " OFF");
+        }
+    },
+
+    MYSQL(65_000, Integer.MAX_VALUE),
+
+    // Explicit ids do not advance H2's identity sequence, so restart it past the generated rows
+    H2(65_000, Integer.MAX_VALUE) {
+        @Override
+        void afterExplicitIds(Connection connection, String table, String idColumn, long nextId) throws SQLException {
+            execute(connection, "ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " RESTART WITH " + nextId);
+        }
+    };
+
+    private final int maxParameters;
+    private final int maxRows;
+
+    SqlDialect(int maxParameters, int maxRows) {
+        this.maxParameters = maxParameters;
+        this.maxRows = maxRows;
+    }
+
+    static SqlDialect forUrl(String url) {
+        if (url.startsWith("jdbc:sqlserver:")) {
+            return SQLSERVER;
+        }
+        if (url.startsWith("jdbc:mysql:")) {
+            return MYSQL;
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return H2;
+        }
+        throw new IllegalArgumentException("Unsupported JDBC URL: " + url);
+    }
+
+    int rowsPerStatement(int columns, int requested) {
+        return Math.max(1, Math.min(requested, Math.min(maxRows, maxParameters / columns)));
+    }
+
+    void beforeExplicitIds(Connection connection, String table) throws SQLException {
+    }
+
+    void afterExplicitIds(Connection connection, String table, String idColumn, long nextId) throws SQLException {
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bookstore.datagen;
+
+import java.util.List;
+import java.util.Random;
+
+// Word lists for Vietnamese names, addresses, book titles and reviews
+final class VietnameseText {
+
+    static final List<String> CATEGORY_NAMES = List.of(
+            "Văn học Việt Nam", "Văn học nước ngoài", "Tiểu thuyết", "Truyện ngắn - Tản văn", "Trinh thám",
+            "Ngôn tình", "Thiếu nhi", "Kinh tế", "Quản trị - Lãnh đạo", "Tâm lý - Kỹ năng sống",
+            "Lịch sử", "Khoa học", "Công nghệ thông tin", "Ngoại ngữ", "Sách giáo khoa",
+            "Tôn giáo - Triết học", "Y học - Sức khỏe", "Nấu ăn", "Du lịch", "Nghệ thuật");
+
+    // Rough share of the most common family names; the rest are spread over the tail
+    private static final String[] FAMILY_NAMES = {
+            "Nguyễn", "Nguyễn", "Nguyễn", "Nguyễn", "Trần", "Trần", "Lê", "Lê", "Phạm", "Hoàng",
+            "Huỳnh", "Phan", "Vũ", "Võ", "Đặng", "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý"};
+    private static final String[] MIDDLE_NAMES = {
+            "Văn", "Thị", "Minh", "Ngọc", "Thanh", "Đức", "Hữu", "Quốc", "Gia", "Anh", "Thu", "Hoàng", "Xuân"};
+    private static final String[] GIVEN_NAMES = {
+            "An", "Bình", "Châu", "Cường", "Dũng", "Duy", "Giang", "Hà", "Hải", "Hạnh", "Hiếu", "Hoa", "Hùng",
+            "Huy", "Hương", "Khánh", "Khoa", "Lan", "Linh", "Long", "Mai", "Minh", "Nam", "Ngân", "Nhung",
+            "Phong", "Phúc", "Quân", "Quỳnh", "Sơn", "Tâm", "Thảo", "Thắng", "Trang", "Trung", "Tú", "Tuấn",
+            "Vy", "Yến"};
+
+    private static final String[] STREETS = {
+            "Nguyễn Huệ", "Lê Lợi", "Trần Hưng Đạo", "Hai Bà Trưng", "Lý Thường Kiệt", "Điện Biên Phủ",
+            "Cách Mạng Tháng Tám", "Võ Văn Tần", "Nguyễn Trãi", "Phan Đình Phùng", "Hoàng Diệu", "Láng Hạ"};
+    private static final String[][] CITIES = {
+            {"TP. Hồ Chí Minh", "Quận 1", "Quận 3", "Quận 7", "Quận Bình Thạnh", "TP. Thủ Đức"},
+            {"Hà Nội", "Quận Ba Đình", "Quận Hoàn Kiếm", "Quận Cầu Giấy", "Quận Đống Đa"},
+            {"Đà Nẵng", "Quận Hải Châu", "Quận Sơn Trà"},
+            {"Cần Thơ", "Quận Ninh Kiều"},
+            {"Hải Phòng", "Quận Lê Chân", "Quận Ngô Quyền"},
+            {"Huế", "Phường Phú Hội"}};
+
+    private static final String[] TITLE_HEADS = {
+            "Những ngày", "Hành trình", "Bí mật", "Giấc mơ", "Câu chuyện", "Mùa hè", "Dòng sông", "Ngôi nhà",
+            "Con đường", "Ký ức", "Tuổi trẻ", "Cánh đồng", "Bầu trời", "Thành phố", "Người thầy", "Lời hứa",
+            "Nghệ thuật", "Bài học", "Cẩm nang", "Đắc nhân tâm", "Nhật ký", "Chuyện kể", "Góc nhỏ", "Tiếng gọi"};
+    private static final String[] TITLE_TAILS = {
+            "của mẹ", "không tên", "trên đồi", "tuổi thơ", "bên kia sông", "mùa thu", "Hà Nội", "Sài Gòn",
+            "đầu tiên", "cuối cùng", "xanh", "yêu thương", "thành công", "lãnh đạo", "tư duy", "lập trình Java",
+            "đầu tư", "hạnh phúc", "miền Tây", "phố cổ", "biển đảo", "quản lý thời gian", "giao tiếp", "khởi nghiệp"};
+
+    static final String[] PUBLISHERS = {
+            "NXB Trẻ", "NXB Kim Đồng", "NXB Văn học", "NXB Hội Nhà văn", "NXB Tổng hợp TP.HCM", "NXB Lao động",
+            "Nhã Nam", "Alpha Books", "First News", "Đinh Tị", "Thái Hà Books", "Phương Nam"};
+
+    private static final String[][] REVIEW_COMMENTS = {
+            {"Sách in lỗi nhiều, rất thất vọng.", "Nội dung nhàm chán, không như quảng cáo."},
+            {"Giao hàng chậm, sách bị móp góc.", "Đọc vài chương là bỏ, không hợp với mình."},
+            {"Sách tạm ổn, đọc giải trí được.", "Nội dung bình thường, giá hơi cao."},
+            {"Sách hay, giao hàng nhanh.", "Nội dung bổ ích, đóng gói cẩn thận."},
+            {"Tuyệt vời, đọc một mạch hết cuốn!", "Sách rất hay, sẽ giới thiệu cho bạn bè.", "Đáng đọc nhất năm nay."}};
+
+    private VietnameseText() {
+    }
+
+    static String fullName(Random random) {
+        return pick(random, FAMILY_NAMES) + " " + pick(random, MIDDLE_NAMES) + " " + pick(random, GIVEN_NAMES);
+    }
+
+    static String phoneNumber(Random random) {
+        return "0" + "35789".charAt(random.nextInt(5)) + String.format("%08d", random.nextInt(100_000_000));
+    }
+
+    static String address(Random random) {
+        // Half of the customers live in Ho Chi Minh City and a third in Hanoi
+        int roll = random.nextInt(10);
+        String[] city = roll < 5 ? CITIES[0] : roll < 8 ? CITIES[1] : CITIES[2 + random.nextInt(CITIES.length - 2)];
+        return (1 + random.nextInt(300)) + " " + pick(random, STREETS) + ", "
+                + city[1 + random.nextInt(city.length - 1)] + ", " + city[0];
+    }
+
+    static String bookTitle(Random random) {
+        String title = pick(random, TITLE_HEADS) + " " + pick(random, TITLE_TAILS);
+        int roll = random.nextInt(10);
+        if (roll == 0) {
+            return title + " - Tập " + (1 + random.nextInt(5));
+        }
+        return roll == 1 ? title + " (Tái bản)" : title;
+    }
+
+    static String bookDescription(String title, String category) {
+        return "\"" + title + "\" là một cuốn sách thuộc thể loại " + category.toLowerCase()
+                + ", mang đến cho độc giả những góc nhìn mới mẻ và sâu sắc.";
+    }
+
+    static String reviewComment(Random random, int rating) {
+        return pick(random, REVIEW_COMMENTS[rating - 1]);
+    }
+
+    static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
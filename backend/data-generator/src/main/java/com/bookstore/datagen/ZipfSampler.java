@@ -0,0 +1,38 @@
+package com.bookstore.datagen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Draws ranks 0..n-1 with P(rank k) proportional to 1 / (k + 1)^exponent.
+// Ranks map to ids through a shuffled table so popularity does not simply follow insertion order.
+final class ZipfSampler {
+
+    private final double[] cumulative;
+    private final int[] ids;
+
+    ZipfSampler(int[] ids, double exponent, Random random) {
+        int n = ids.length;
+        this.ids = ids.clone();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = this.ids[i];
+            this.ids[i] = this.ids[j];
+            this.ids[j] = swap;
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        return ids[rank];
+    }
+}
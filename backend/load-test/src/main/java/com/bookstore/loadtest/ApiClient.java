@@ -0,0 +1,77 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Thin JSON client that times every call; a non-2xx status or a transport failure counts as an error
+final class ApiClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final LoadStats stats;
+
+    ApiClient(String baseUrl, LoadStats stats, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    JsonNode get(String name, String path, String token) {
+        return send(name, request(path, token).GET());
+    }
+
+    JsonNode post(String name, String path, Object body, String token) {
+        return send(name, request(path, token).POST(jsonBody(body)));
+    }
+
+    JsonNode delete(String name, String path, String token) {
+        return send(name, request(path, token).DELETE());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher jsonBody(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not serialize request body", e);
+        }
+    }
+
+    // Returns the ApiResponse "data" node, or null when the call failed
+    private JsonNode send(String name, HttpRequest.Builder builder) {
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            boolean success = response.statusCode() / 100 == 2;
+            stats.record(name, System.nanoTime() - startedAt, success);
+            if (!success || response.body().length == 0) {
+                return null;
+            }
+            return objectMapper.readTree(response.body()).path("data");
+        } catch (IOException e) {
+            stats.record(name, System.nanoTime() - startedAt, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
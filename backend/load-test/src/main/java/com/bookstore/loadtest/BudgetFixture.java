@@ -0,0 +1,109 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Accounts and ids the budgeted calls run against, created through the API before anything is counted
+final class BudgetFixture {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+
+    String customerToken;
+    String adminToken;
+    List<Integer> bookIds;
+    int reviewedBookId;
+    int categoryId;
+    int cartItemId;
+    long cartVersion;
+    int orderId;
+    int placedOrderId;
+    int createdBookId;
+    int reviewId;
+    final LocalDate today = LocalDate.now();
+
+    private BudgetFixture(MockMvc mockMvc, ObjectMapper objectMapper) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+    }
+
+    static BudgetFixture create(MockMvc mockMvc, ObjectMapper objectMapper, EmbeddedDatabase database)
+            throws Exception {
+        BudgetFixture fixture = new BudgetFixture(mockMvc, objectMapper);
+        fixture.customerToken = fixture.register("budget-customer@bookstore.test");
+        fixture.register("budget-admin@bookstore.test");
+        database.execute("UPDATE users SET role = 'ADMIN' WHERE email = 'budget-admin@bookstore.test'");
+        fixture.adminToken = fixture.call(post("/api/auth/login"), null,
+                Map.of("email", "budget-admin@bookstore.test", "password", "budget123")).get("token").asText();
+
+        fixture.bookIds = database.queryIds(
+                "SELECT book_id FROM books WHERE is_active = TRUE ORDER BY book_id FETCH FIRST 8 ROWS ONLY");
+        fixture.reviewedBookId = database.queryIds(
+                "SELECT book_id FROM reviews GROUP BY book_id ORDER BY COUNT(*) DESC FETCH FIRST 1 ROWS ONLY").get(0);
+        fixture.categoryId = database.queryIds(
+                "SELECT category_id FROM books GROUP BY category_id ORDER BY COUNT(*) DESC FETCH FIRST 1 ROWS ONLY").get(0);
+
+        // One placed order, then a fresh three-line cart
+        for (int i = 0; i < 3; i++) {
+            fixture.addToCart(fixture.bookIds.get(i));
+        }
+        fixture.orderId = fixture.call(post("/api/orders"), fixture.customerToken, fixture.orderRequest())
+                .get("orderId").asInt();
+        for (int i = 3; i < 6; i++) {
+            fixture.addToCart(fixture.bookIds.get(i));
+        }
+        fixture.cartItemId = fixture.call(get("/api/cart"), fixture.customerToken, null)
+                .get(0).get("cartItemId").asInt();
+        fixture.cartVersion = fixture.call(get("/api/cart/changes"), fixture.customerToken, null)
+                .get("version").asLong();
+        return fixture;
+    }
+
+    Map<String, Object> orderRequest() {
+        return Map.of("shippingAddress", "12 Nguyễn Huệ, Quận 1, TP. Hồ Chí Minh", "phoneNumber", "0901234567",
+                "paymentMethod", "COD");
+    }
+
+    String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private String register(String email) throws Exception {
+        return call(post("/api/auth/register"), null, Map.of("email", email, "password", "budget123",
+                "fullName", "Budget Check", "phoneNumber", "0901234567")).get("token").asText();
+    }
+
+    private void addToCart(int bookId) throws Exception {
+        call(post("/api/cart/add"), customerToken, Map.of("bookId", bookId, "quantity", 1));
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request, String token, Object body) throws Exception {
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(json(body));
+        }
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        if (response.getStatus() / 100 != 2) {
+            throw new IllegalStateException("Fixture setup failed: " + response.getStatus() + " "
+                    + response.getContentAsString());
+        }
+        return objectMapper.readTree(response.getContentAsByteArray()).path("data");
+    }
+}
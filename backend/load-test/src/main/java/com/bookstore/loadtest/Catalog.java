@@ -0,0 +1,48 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Book ids, category ids and search terms discovered from the running API before the test starts
+final class Catalog {
+
+    final List<Integer> bookIds = new ArrayList<>();
+    final List<Integer> categoryIds = new ArrayList<>();
+    final List<String> keywords = new ArrayList<>();
+
+    static Catalog load(ApiClient client) {
+        Catalog catalog = new Catalog();
+        Set<String> keywords = new LinkedHashSet<>();
+        JsonNode books = client.get("setup", "/api/books", null);
+        if (books != null) {
+            for (JsonNode book : books) {
+                catalog.bookIds.add(book.get("bookId").asInt());
+                String[] words = book.get("title").asText().split("\\s+");
+                keywords.add(words[words.length > 1 && words[0].length() <= 3 ? 1 : 0].toLowerCase());
+                keywords.add(book.get("author").asText().split("\\s+")[0].toLowerCase());
+            }
+        }
+        JsonNode categories = client.get("setup", "/api/categories", null);
+        if (categories != null) {
+            for (JsonNode category : categories) {
+                catalog.categoryIds.add(category.get("categoryId").asInt());
+            }
+        }
+        if (catalog.bookIds.isEmpty() || catalog.categoryIds.isEmpty()) {
+            throw new IllegalStateException("The seeded catalog is empty; check the schema file");
+        }
+        catalog.keywords.addAll(keywords);
+        return catalog;
+    }
+
+    // Skewed towards the first books so carts and stock rows contend like best-sellers do
+    int popularBookId(Random random) {
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return bookIds.get((int) (skewed * bookIds.size()));
+    }
+}
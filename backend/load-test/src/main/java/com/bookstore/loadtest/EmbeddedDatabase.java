@@ -0,0 +1,110 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.datagen.DataGenerator;
+import com.bookstore.datagen.GeneratorConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// In-memory H2 database seeded from database/schema.sql. The MySQL-flavoured DDL is loaded in H2's MySQL
+// mode; the API then connects in MSSQLServer mode, which switches the whole database over.
+final class EmbeddedDatabase {
+
+    static final String PRIMARY = "bookstore_loadtest";
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+            "CREATE TABLE (\\w+) \\((.*?)\\)\\s*ENGINE[^;]*;", Pattern.DOTALL);
+    private static final Pattern INLINE_INDEX = Pattern.compile("\\b(INDEX|UNIQUE KEY) (\\w+)");
+
+    private final String name;
+    // Held open so the in-memory database lives as long as the run
+    private final Connection keepAlive;
+
+    private EmbeddedDatabase(String name, Connection keepAlive) {
+        this.name = name;
+        this.keepAlive = keepAlive;
+    }
+
+    // Databases started with the same options hold the same rows, since the generator is seeded
+    static EmbeddedDatabase start(String name, Path schemaFile, int stockPerBook, GeneratorConfig data)
+            throws IOException, SQLException {
+        Connection connection = DriverManager.getConnection(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : splitStatements(toH2(Files.readString(schemaFile)))) {
+                statement.execute(sql);
+            }
+            if (data != null) {
+                DataGenerator.generate(connection, data);
+            }
+            // Checkout traffic must not run the seeded stock dry mid-run
+            statement.executeUpdate("UPDATE books SET stock_quantity = " + stockPerBook);
+            // H2 has no HOLDLOCK, so concurrent first checkouts of the day would race to insert the same
+            // rollup row; with the rows already present the MERGE only ever takes its row-locked update path
+            statement.executeUpdate("INSERT INTO sales_daily_book (sales_date, book_id, category_id) "
+                    + "SELECT CURRENT_DATE, book_id, category_id FROM books");
+            statement.executeUpdate("INSERT INTO sales_daily_category (sales_date, category_id) "
+                    + "SELECT CURRENT_DATE, category_id FROM categories");
+        }
+        return new EmbeddedDatabase(name, connection);
+    }
+
+    String jdbcUrl() {
+        return "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;MODE=MSSQLServer";
+    }
+
+    void execute(String sql) throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    List<Integer> queryIds(String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement statement = keepAlive.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                ids.add(rows.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    void stop() throws SQLException {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        keepAlive.close();
+    }
+
+    // MySQL index names are per table, H2's are per schema, so inline indexes get the table name prefixed
+    private static String toH2(String schema) {
+        Matcher table = CREATE_TABLE.matcher(schema);
+        StringBuilder result = new StringBuilder();
+        while (table.find()) {
+            String tableName = table.group(1);
+            String body = INLINE_INDEX.matcher(table.group(0)).replaceAll("$1 " + tableName + "_$2");
+            table.appendReplacement(result, Matcher.quoteReplacement(body));
+        }
+        table.appendTail(result);
+        return result.toString();
+    }
+
+    private static String[] splitStatements(String script) {
+        String withoutComments = script.replaceAll("(?m)^\\s*--.*$", "");
+        return Arrays.stream(withoutComments.split(";\\s*(\\r?\\n|$)"))
+                .map(String::trim)
+                .filter(sql -> !sql.isEmpty())
+                .toArray(String[]::new);
+    }
+}
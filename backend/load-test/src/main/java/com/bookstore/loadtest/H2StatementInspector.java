@@ -0,0 +1,18 @@
+package com.bookstore.loadtest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Pattern;
+
+// Rewrites the few T-SQL-only constructs in the API's native queries into forms H2 accepts.
+// JdbcTemplate code paths already fall back on their own when the database is not SQL Server.
+public class H2StatementInspector implements StatementInspector {
+
+    private static final Pattern MERGE_WITH_HOLDLOCK = Pattern.compile(
+            "MERGE (\\w+) WITH \\(HOLDLOCK\\)", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public String inspect(String sql) {
+        return MERGE_WITH_HOLDLOCK.matcher(sql).replaceAll("MERGE INTO $1");
+    }
+}
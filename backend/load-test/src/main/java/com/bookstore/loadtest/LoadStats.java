@@ -0,0 +1,102 @@
+package com.bookstore.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latency (microseconds) and error counts per request name; nothing is recorded during warm-up
+final class LoadStats {
+
+    private final Map<String, RequestStats> requests = new ConcurrentHashMap<>();
+    private final Map<Scenario, AtomicLong> iterations = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void stopRecording() {
+        recording = false;
+    }
+
+    void record(String request, long latencyNanos, boolean success) {
+        if (recording) {
+            requests.computeIfAbsent(request, name -> new RequestStats()).record(latencyNanos, success);
+        }
+    }
+
+    void recordIteration(Scenario scenario) {
+        if (recording) {
+            iterations.computeIfAbsent(scenario, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    Map<String, Object> summarize(double measuredSeconds) {
+        Histogram overall = new Histogram(3);
+        long overallErrors = 0;
+        Map<String, Object> perRequest = new TreeMap<>();
+        for (Map.Entry<String, RequestStats> entry : requests.entrySet()) {
+            RequestStats stats = entry.getValue();
+            overall.add(stats.latencies);
+            overallErrors += stats.errors.get();
+            perRequest.put(entry.getKey(), describe(stats.latencies, stats.errors.get(), measuredSeconds));
+        }
+
+        Map<String, Object> perScenario = new LinkedHashMap<>();
+        for (Scenario scenario : Scenario.values()) {
+            AtomicLong count = iterations.get(scenario);
+            long total = count != null ? count.get() : 0;
+            Map<String, Object> scenarioSummary = new LinkedHashMap<>();
+            scenarioSummary.put("iterations", total);
+            scenarioSummary.put("iterationsPerSecond", round(total / measuredSeconds));
+            perScenario.put(scenario.key(), scenarioSummary);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("overall", describe(overall, overallErrors, measuredSeconds));
+        summary.put("scenarios", perScenario);
+        summary.put("requests", perRequest);
+        return summary;
+    }
+
+    private static Map<String, Object> describe(Histogram latencies, long errors, double measuredSeconds) {
+        long count = latencies.getTotalCount();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("count", count);
+        description.put("errors", errors);
+        description.put("errorRate", count == 0 ? 0.0 : round((double) errors / count));
+        description.put("throughputPerSecond", round(count / measuredSeconds));
+        description.put("meanMillis", round(latencies.getMean() / 1000.0));
+        description.put("p50Millis", millis(latencies, 50));
+        description.put("p90Millis", millis(latencies, 90));
+        description.put("p95Millis", millis(latencies, 95));
+        description.put("p99Millis", millis(latencies, 99));
+        description.put("maxMillis", round(latencies.getMaxValue() / 1000.0));
+        return description;
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return round(latencies.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static final class RequestStats {
+        final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyNanos, boolean success) {
+            latencies.recordValue(Math.max(1, latencyNanos / 1000));
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.datagen.GeneratorConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Options come as --name=value arguments, e.g. --browse.users=50 --duration=120.
+// Options prefixed with data. go to the synthetic data generator, e.g. --data.scale=5, and options
+// prefixed with api. are passed to the API as properties, e.g. --api.limiter.enabled=false
+final class LoadTestConfig {
+
+    final Map<Scenario, Integer> users = new LinkedHashMap<>();
+    final int durationSeconds;
+    final int warmupSeconds;
+    final int thinkTimeMs;
+    final int stockPerBook;
+    final int replicas;
+    final long seed;
+    final String label;
+    final Path schemaFile;
+    final Path outputFile;
+    final GeneratorConfig data;
+    final Map<String, String> apiProperties = new LinkedHashMap<>();
+
+    private LoadTestConfig(Map<String, String> options) {
+        users.put(Scenario.BROWSE, intOption(options, "browse.users", 20));
+        users.put(Scenario.SEARCH, intOption(options, "search.users", 10));
+        users.put(Scenario.ADD_TO_CART, intOption(options, "cart.users", 10));
+        users.put(Scenario.CHECKOUT, intOption(options, "checkout.users", 5));
+        durationSeconds = intOption(options, "duration", 60);
+        warmupSeconds = intOption(options, "warmup", 10);
+        thinkTimeMs = intOption(options, "think-time-ms", 0);
+        stockPerBook = intOption(options, "stock-per-book", 1_000_000);
+        replicas = intOption(options, "replicas", 0);
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        label = options.getOrDefault("label", "local");
+        schemaFile = options.containsKey("schema") ? Path.of(options.get("schema")) : findSchema();
+        outputFile = Path.of(options.getOrDefault("output", "load-test-results/" + label + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"));
+
+        Map<String, String> dataOptions = new HashMap<>();
+        options.forEach((name, value) -> {
+            if (name.startsWith("data.")) {
+                dataOptions.put(name.substring("data.".length()), value);
+            } else if (name.startsWith("api.")) {
+                apiProperties.put(name.substring("api.".length()), value);
+            }
+        });
+        if (dataOptions.isEmpty()) {
+            data = null;
+        } else {
+            dataOptions.putIfAbsent("seed", String.valueOf(seed));
+            data = GeneratorConfig.of(dataOptions);
+        }
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int split = arg.indexOf('=');
+            options.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        Map<String, Integer> scenarioUsers = new LinkedHashMap<>();
+        users.forEach((scenario, count) -> scenarioUsers.put(scenario.key(), count));
+        description.put("users", scenarioUsers);
+        description.put("durationSeconds", durationSeconds);
+        description.put("warmupSeconds", warmupSeconds);
+        description.put("thinkTimeMs", thinkTimeMs);
+        description.put("replicas", replicas);
+        description.put("seed", seed);
+        description.put("schema", schemaFile.toString());
+        if (data != null) {
+            description.put("data", data.describe());
+        }
+        if (!apiProperties.isEmpty()) {
+            description.put("api", apiProperties);
+        }
+        return description;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    // Works from the repository root, backend/ or backend/load-test/
+    private static Path findSchema() {
+        for (String candidate : List.of("database/schema.sql", "../database/schema.sql", "../../database/schema.sql")) {
+            Path path = Path.of(candidate);
+            if (Files.exists(path)) {
+                return path;
+            }
+        }
+        throw new IllegalStateException("database/schema.sql not found; pass --schema=<path>");
+    }
+}
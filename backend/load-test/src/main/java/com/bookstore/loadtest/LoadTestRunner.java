@@ -0,0 +1,159 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.BookstoreApiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Boots the API on an embedded database, runs every scenario concurrently and writes a JSON report
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        EmbeddedDatabase database = EmbeddedDatabase.start(
+                EmbeddedDatabase.PRIMARY, config.schemaFile, config.stockPerBook, config.data);
+        List<EmbeddedDatabase> replicas = new ArrayList<>();
+        ConfigurableApplicationContext context = null;
+        int exitCode = 0;
+        try {
+            for (int i = 1; i <= config.replicas; i++) {
+                replicas.add(EmbeddedDatabase.start(
+                        EmbeddedDatabase.PRIMARY + "_replica" + i, config.schemaFile, config.stockPerBook, config.data));
+            }
+            context = startApi(database, replicas, config.apiProperties);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            Map<String, Object> summary = run(config, baseUrl);
+            writeReport(config, summary);
+            exitCode = hasErrors(summary) ? 2 : 0;
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            for (EmbeddedDatabase replica : replicas) {
+                replica.stop();
+            }
+            database.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    // Also used by QueryBudgetRunner, which talks to the same embedded setup through MockMvc
+    static ConfigurableApplicationContext startApi(EmbeddedDatabase database, List<EmbeddedDatabase> replicas,
+                                                   Map<String, String> apiProperties,
+                                                   ApplicationContextInitializer<?>... initializers) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", database.jdbcUrl());
+        if (!replicas.isEmpty()) {
+            properties.put("datasource.replica.urls",
+                    replicas.stream().map(EmbeddedDatabase::jdbcUrl).collect(Collectors.joining(",")));
+        }
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                H2StatementInspector.class.getName());
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.generate_statistics", "false");
+        properties.put("server.port", "0");
+        properties.put("cart.expiry.enabled", "false");
+        properties.put("outbox.sink.file.path", "target/outbox/order-events.ndjson");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.bookstore", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.putAll(apiProperties);
+        // Passed as command-line arguments so they win over application.properties
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(BookstoreApiApplication.class).initializers(initializers).run(args);
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, String baseUrl) throws InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoadStats stats = new LoadStats();
+        ApiClient client = new ApiClient(baseUrl, stats, objectMapper);
+        Catalog catalog = Catalog.load(client);
+
+        long warmupNanos = TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + warmupNanos + durationNanos;
+
+        List<Thread> threads = new ArrayList<>();
+        int index = 0;
+        for (Map.Entry<Scenario, Integer> entry : config.users.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++, index++) {
+                VirtualUser user = new VirtualUser(entry.getKey(), index, client, stats, catalog,
+                        config.seed + index, config.thinkTimeMs, deadline);
+                Thread thread = new Thread(user, "vu-" + entry.getKey().key() + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        System.out.printf("Warming up for %ds with %d virtual users...%n", config.warmupSeconds, threads.size());
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, startedAt + warmupNanos - System.nanoTime()));
+        stats.startRecording();
+        long measuredFrom = System.nanoTime();
+        System.out.printf("Measuring for %ds...%n", config.durationSeconds);
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, deadline - System.nanoTime()));
+        stats.stopRecording();
+        double measuredSeconds = (System.nanoTime() - measuredFrom) / 1e9;
+
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        return stats.summarize(measuredSeconds);
+    }
+
+    private static void writeReport(LoadTestConfig config, Map<String, Object> summary) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.label);
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("config", config.describe());
+        report.putAll(summary);
+
+        if (config.outputFile.getParent() != null) {
+            Files.createDirectories(config.outputFile.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(config.outputFile.toFile(), report);
+
+        System.out.printf("%n%-36s %9s %7s %9s %9s %9s %9s%n",
+                "request", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> requests = (Map<String, Map<String, Object>>) summary.get("requests");
+        requests.forEach(LoadTestRunner::printRow);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> overall = (Map<String, Object>) summary.get("overall");
+        printRow("overall", overall);
+        System.out.printf("%nReport written to %s%n", config.outputFile.toAbsolutePath());
+    }
+
+    private static void printRow(String name, Map<String, Object> row) {
+        System.out.printf("%-36s %9s %7s %9s %9s %9s %9s%n", name, row.get("count"), row.get("errors"),
+                row.get("throughputPerSecond"), row.get("p50Millis"), row.get("p95Millis"), row.get("p99Millis"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean hasErrors(Map<String, Object> summary) {
+        Map<String, Object> overall = (Map<String, Object>) summary.get("overall");
+        return ((Number) overall.get("errors")).longValue() > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// One endpoint call and the most SELECTs and writes (INSERT/UPDATE/DELETE/MERGE) it may issue
+final class QueryBudget {
+
+    enum Caller { ANONYMOUS, CUSTOMER, ADMIN }
+
+    final String name;
+    final Caller caller;
+    final Function<BudgetFixture, MockHttpServletRequestBuilder> request;
+    int maxSelects;
+    int maxWrites;
+    int expectedStatus = 200;
+    BiConsumer<BudgetFixture, JsonNode> capture;
+
+    private QueryBudget(String name, Caller caller, Function<BudgetFixture, MockHttpServletRequestBuilder> request) {
+        this.name = name;
+        this.caller = caller;
+        this.request = request;
+    }
+
+    static QueryBudget anonymous(String name, Function<BudgetFixture, MockHttpServletRequestBuilder> request) {
+        return new QueryBudget(name, Caller.ANONYMOUS, request);
+    }
+
+    static QueryBudget customer(String name, Function<BudgetFixture, MockHttpServletRequestBuilder> request) {
+        return new QueryBudget(name, Caller.CUSTOMER, request);
+    }
+
+    static QueryBudget admin(String name, Function<BudgetFixture, MockHttpServletRequestBuilder> request) {
+        return new QueryBudget(name, Caller.ADMIN, request);
+    }
+
+    QueryBudget selects(int maxSelects) {
+        this.maxSelects = maxSelects;
+        return this;
+    }
+
+    QueryBudget writes(int maxWrites) {
+        this.maxWrites = maxWrites;
+        return this;
+    }
+
+    QueryBudget status(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+        return this;
+    }
+
+    // Reads ids out of the ApiResponse "data" node for later calls
+    QueryBudget capture(BiConsumer<BudgetFixture, JsonNode> capture) {
+        this.capture = capture;
+        return this;
+    }
+}
@@ -0,0 +1,227 @@
+package com.bookstore.loadtest;
+
+import com.bookstore.datagen.GeneratorConfig;
+import com.bookstore.metrics.StatementCountingDataSource;
+import com.bookstore.metrics.StatementLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bookstore.loadtest.QueryBudget.admin;
+import static com.bookstore.loadtest.QueryBudget.anonymous;
+import static com.bookstore.loadtest.QueryBudget.customer;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Calls every controller endpoint once through MockMvc, which runs the whole filter chain on this thread,
+// and checks the SQL statements each call issued against its budget. Exits with status 1 when a budget is
+// exceeded and prints the statements that repeated, which is what an N+1 looks like.
+public final class QueryBudgetRunner {
+
+    private QueryBudgetRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        // Enough rows per relation that a lazy load per row cannot hide behind the persistence context
+        GeneratorConfig data = config.data != null ? config.data : GeneratorConfig.of(Map.of(
+                "users", "200", "books", "300", "orders", "300", "reviews", "600", "carts", "20",
+                "seed", String.valueOf(config.seed)));
+        EmbeddedDatabase database = EmbeddedDatabase.start(
+                EmbeddedDatabase.PRIMARY, config.schemaFile, config.stockPerBook, data);
+        ConfigurableApplicationContext context = null;
+        int failures;
+        try {
+            // Streaming responses run on the task executor; run them inline so their statements are counted
+            context = LoadTestRunner.startApi(database, List.of(), config.apiProperties, applicationContext -> applicationContext.getBeanFactory()
+                    .registerSingleton("applicationTaskExecutor", new ConcurrentTaskExecutor(Runnable::run)));
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                    .apply(springSecurity())
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper();
+            BudgetFixture fixture = BudgetFixture.create(mockMvc, objectMapper, database);
+            failures = check(mockMvc, objectMapper, fixture, budgets());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            database.stop();
+        }
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    // In call order: later entries use ids captured by earlier ones. Authenticated calls include the JWT
+    // filter's user lookup, and most controllers look the caller up again by email. Books and categories
+    // the fixture has already loaded come from the second-level cache.
+    static List<QueryBudget> budgets() {
+        List<QueryBudget> budgets = new ArrayList<>();
+
+        // AuthController
+        budgets.add(anonymous("POST /api/auth/register", f -> post("/api/auth/register")
+                .content(f.json(Map.of("email", "budget-new@bookstore.test", "password", "budget123",
+                        "fullName", "Budget New")))).selects(1).writes(1));
+        budgets.add(anonymous("POST /api/auth/login", f -> post("/api/auth/login")
+                .content(f.json(Map.of("email", "budget-new@bookstore.test", "password", "budget123")))).selects(2));
+
+        // CategoryController (writes to categories and books rebuild the category registry)
+        budgets.add(anonymous("GET /api/categories", f -> get("/api/categories")).selects(0));
+        budgets.add(anonymous("GET /api/categories/{id}", f -> get("/api/categories/" + f.categoryId)).selects(0));
+        budgets.add(admin("POST /api/categories", f -> post("/api/categories")
+                .content(f.json(Map.of("categoryName", "Budget Category", "description", "Budget check"))))
+                .selects(3).writes(1));
+
+        // BookController
+        budgets.add(anonymous("GET /api/books", f -> get("/api/books")).selects(1));
+        budgets.add(anonymous("GET /api/books/{id}", f -> get("/api/books/" + f.bookIds.get(0))).selects(0));
+        budgets.add(anonymous("GET /api/books/category/{categoryId}",
+                f -> get("/api/books/category/" + f.categoryId)).selects(1));
+        budgets.add(anonymous("GET /api/books/search", f -> get("/api/books/search").param("keyword", "mùa")).selects(1));
+        budgets.add(anonymous("GET /api/books/new", f -> get("/api/books/new")).selects(1));
+        budgets.add(admin("POST /api/books", f -> post("/api/books").content(f.json(Map.of(
+                "title", "Sách kiểm tra", "author", "Budget Check", "category", Map.of("categoryId", f.categoryId),
+                "price", 99000, "stockQuantity", 10))))
+                .selects(2).writes(1)
+                .capture((f, data) -> f.createdBookId = data.get("bookId").asInt()));
+        budgets.add(admin("PUT /api/books/{id}", f -> put("/api/books/" + f.createdBookId).content(f.json(Map.of(
+                "title", "Sách kiểm tra (sửa)", "author", "Budget Check", "category", Map.of("categoryId", f.categoryId),
+                "price", 89000, "stockQuantity", 12))))
+                .selects(3).writes(1));
+        budgets.add(admin("DELETE /api/books/{id}", f -> delete("/api/books/" + f.createdBookId)).selects(2).writes(1));
+
+        // CartController
+        budgets.add(customer("GET /api/cart", f -> get("/api/cart")).selects(3));
+        budgets.add(customer("GET /api/cart/summary", f -> get("/api/cart/summary")).selects(3));
+        budgets.add(customer("GET /api/cart/changes", f -> get("/api/cart/changes")).selects(4));
+        budgets.add(customer("GET /api/cart/changes?since=current",
+                f -> get("/api/cart/changes").param("since", String.valueOf(f.cartVersion))).selects(3).status(304));
+        budgets.add(customer("POST /api/cart/add", f -> post("/api/cart/add")
+                .content(f.json(Map.of("bookId", f.bookIds.get(6), "quantity", 1)))).selects(4).writes(3));
+        budgets.add(customer("PUT /api/cart/{cartItemId}",
+                f -> put("/api/cart/" + f.cartItemId).param("quantity", "2")).selects(4).writes(2));
+        budgets.add(customer("POST /api/cart/batch", f -> post("/api/cart/batch").content(f.json(Map.of("operations",
+                List.of(Map.of("type", "ADD", "bookId", f.bookIds.get(7), "quantity", 1),
+                        Map.of("type", "SET_QUANTITY", "cartItemId", f.cartItemId, "quantity", 3)))))).selects(6).writes(3));
+        budgets.add(customer("DELETE /api/cart/{cartItemId}", f -> delete("/api/cart/" + f.cartItemId)).selects(3).writes(3));
+
+        // OrderController
+        budgets.add(customer("GET /api/orders", f -> get("/api/orders")).selects(3));
+        budgets.add(customer("GET /api/orders/{id}", f -> get("/api/orders/" + f.orderId)).selects(3));
+        // One insert and one stock update per line; the fixture cart holds four lines by now
+        budgets.add(customer("POST /api/orders", f -> post("/api/orders").content(f.json(f.orderRequest())))
+                .selects(4).writes(16)
+                .capture((f, data) -> f.placedOrderId = data.get("orderId").asInt()));
+        budgets.add(customer("PUT /api/orders/{id}/cancel", f -> put("/api/orders/" + f.placedOrderId + "/cancel"))
+                .selects(2).writes(5));
+        budgets.add(admin("GET /api/orders/all", f -> get("/api/orders/all")).selects(2));
+        // Guarded like the bulk endpoint: the status is read before the conditional update
+        budgets.add(admin("PUT /api/orders/{id}/status", f -> put("/api/orders/" + f.orderId + "/status")
+                .param("status", "CONFIRMED")).selects(4).writes(2));
+        budgets.add(admin("PUT /api/orders/status/bulk", f -> put("/api/orders/status/bulk").content(f.json(Map.of(
+                "orderIds", List.of(f.orderId), "status", "PROCESSING")))).selects(2).writes(2));
+        budgets.add(admin("PUT /api/orders/cancel/bulk", f -> put("/api/orders/cancel/bulk").content(f.json(Map.of(
+                "orderIds", List.of(f.orderId))))).selects(2).writes(1));
+        budgets.add(customer("DELETE /api/cart/clear", f -> delete("/api/cart/clear")).selects(3).writes(4));
+
+        // OrderExportController
+        budgets.add(admin("GET /api/admin/orders/export", f -> get("/api/admin/orders/export")).selects(1));
+
+        // ReviewController
+        budgets.add(anonymous("GET /api/reviews/book/{bookId}",
+                f -> get("/api/reviews/book/" + f.reviewedBookId)).selects(1));
+        budgets.add(anonymous("GET /api/reviews/book/{bookId}/stats",
+                f -> get("/api/reviews/book/" + f.reviewedBookId + "/stats")).selects(2));
+        budgets.add(customer("POST /api/reviews", f -> post("/api/reviews").content(f.json(Map.of(
+                "bookId", f.bookIds.get(0), "rating", 5, "comment", "Sách rất hay"))))
+                .selects(4).writes(1)
+                .capture((f, data) -> f.reviewId = data.get("reviewId").asInt()));
+        budgets.add(customer("PUT /api/reviews/{id}", f -> put("/api/reviews/" + f.reviewId)
+                .param("rating", "4").param("comment", "Sách hay")).selects(3).writes(1));
+        budgets.add(customer("DELETE /api/reviews/{id}", f -> delete("/api/reviews/" + f.reviewId)).selects(2).writes(1));
+
+        // SalesAnalyticsController (backfill work on its own pool is not on this thread, so not counted)
+        budgets.add(admin("POST /api/admin/analytics/backfill", f -> post("/api/admin/analytics/backfill")
+                .param("from", f.today.minusDays(30).toString()).param("to", f.today.toString())).selects(1).writes(1));
+        budgets.add(admin("GET /api/admin/analytics/sales/daily", f -> get("/api/admin/analytics/sales/daily")
+                .param("from", f.today.minusDays(30).toString()).param("to", f.today.toString())).selects(2));
+        budgets.add(admin("GET /api/admin/analytics/sales/books", f -> get("/api/admin/analytics/sales/books")
+                .param("from", f.today.minusDays(30).toString()).param("to", f.today.toString())).selects(2));
+        budgets.add(admin("GET /api/admin/analytics/sales/categories", f -> get("/api/admin/analytics/sales/categories")
+                .param("from", f.today.minusDays(30).toString()).param("to", f.today.toString())).selects(2));
+
+        // CartExpiryController
+        budgets.add(admin("POST /api/admin/carts/expire", f -> post("/api/admin/carts/expire")).selects(2).writes(3));
+
+        // CacheController
+        budgets.add(admin("GET /api/admin/cache/regions", f -> get("/api/admin/cache/regions")).selects(1));
+        budgets.add(admin("POST /api/admin/cache/evict", f -> post("/api/admin/cache/evict")).selects(1));
+        return budgets;
+    }
+
+    private static int check(MockMvc mockMvc, ObjectMapper objectMapper, BudgetFixture fixture,
+                             List<QueryBudget> budgets) throws Exception {
+        System.out.printf("%n%-46s %6s %11s %11s  %s%n", "endpoint", "status", "selects", "writes", "result");
+        int failures = 0;
+        for (QueryBudget budget : budgets) {
+            MockHttpServletRequestBuilder request = budget.request.apply(fixture).contentType(MediaType.APPLICATION_JSON);
+            String token = switch (budget.caller) {
+                case CUSTOMER -> fixture.customerToken;
+                case ADMIN -> fixture.adminToken;
+                case ANONYMOUS -> null;
+            };
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+
+            StatementCountingDataSource.startRecording();
+            MockHttpServletResponse response;
+            StatementLog log;
+            try {
+                response = mockMvc.perform(request).andReturn().getResponse();
+            } finally {
+                log = StatementCountingDataSource.stopRecording();
+            }
+
+            int selects = log.count(StatementLog.Kind.SELECT);
+            boolean passed = response.getStatus() == budget.expectedStatus
+                    && selects <= budget.maxSelects && log.writes() <= budget.maxWrites;
+            System.out.printf("%-46s %6d %5d / %-3d %5d / %-3d  %s%n", budget.name, response.getStatus(),
+                    selects, budget.maxSelects, log.writes(), budget.maxWrites, passed ? "ok" : "OVER BUDGET");
+            if (!passed) {
+                failures++;
+                printRepeated(log);
+            }
+            if (budget.capture != null && response.getStatus() / 100 == 2) {
+                budget.capture.accept(fixture, objectMapper.readTree(response.getContentAsByteArray()).path("data"));
+            }
+        }
+        System.out.printf("%n%d of %d endpoints within budget%n", budgets.size() - failures, budgets.size());
+        return failures;
+    }
+
+    private static void printRepeated(StatementLog log) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String sql : log.statements()) {
+            counts.merge(sql.replaceAll("\\s+", " ").trim(), 1, Integer::sum);
+        }
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(5)
+                .forEach(entry -> System.out.printf("    %4dx %s%n", entry.getValue(),
+                        entry.getKey().length() > 140 ? entry.getKey().substring(0, 140) + "..." : entry.getKey()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookstore.loadtest;
+
+enum Scenario {
+    BROWSE("browse"),
+    SEARCH("search"),
+    ADD_TO_CART("add-to-cart"),
+    CHECKOUT("checkout");
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bookstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Runs one scenario in a closed loop until the deadline
+final class VirtualUser implements Runnable {
+
+    private final Scenario scenario;
+    private final int index;
+    private final ApiClient client;
+    private final LoadStats stats;
+    private final Catalog catalog;
+    private final Random random;
+    private final int thinkTimeMs;
+    private final long deadlineNanos;
+    private String token;
+    private int cartLines;
+
+    VirtualUser(Scenario scenario, int index, ApiClient client, LoadStats stats, Catalog catalog,
+                long seed, int thinkTimeMs, long deadlineNanos) {
+        this.scenario = scenario;
+        this.index = index;
+        this.client = client;
+        this.stats = stats;
+        this.catalog = catalog;
+        this.random = new Random(seed);
+        this.thinkTimeMs = thinkTimeMs;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        if (scenario == Scenario.ADD_TO_CART || scenario == Scenario.CHECKOUT) {
+            token = signUp();
+            if (token == null) {
+                return;
+            }
+        }
+        while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+            switch (scenario) {
+                case BROWSE -> browse();
+                case SEARCH -> search();
+                case ADD_TO_CART -> addToCart();
+                case CHECKOUT -> checkout();
+            }
+            stats.recordIteration(scenario);
+            pause();
+        }
+    }
+
+    private void browse() {
+        client.get("GET /api/categories", "/api/categories", null);
+        client.get("GET /api/books", "/api/books", null);
+        client.get("GET /api/books/category/{id}", "/api/books/category/" + pick(catalog.categoryIds), null);
+        client.get("GET /api/books/{id}", "/api/books/" + catalog.popularBookId(random), null);
+    }
+
+    private void search() {
+        client.get("GET /api/books/search", "/api/books/search?keyword=" + pick(catalog.keywords), null);
+    }
+
+    private void addToCart() {
+        client.post("POST /api/cart/add", "/api/cart/add",
+                Map.of("bookId", catalog.popularBookId(random), "quantity", 1), token);
+        client.get("GET /api/cart/summary", "/api/cart/summary", token);
+        // Keep carts at a realistic size instead of growing for the whole run
+        if (++cartLines >= 20) {
+            client.delete("DELETE /api/cart/clear", "/api/cart/clear", token);
+            cartLines = 0;
+        }
+    }
+
+    private void checkout() {
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            client.post("POST /api/cart/add", "/api/cart/add",
+                    Map.of("bookId", catalog.popularBookId(random), "quantity", 1 + random.nextInt(2)), token);
+        }
+        client.post("POST /api/orders", "/api/orders", Map.of(
+                "shippingAddress", "12 Nguyen Hue, District 1, Ho Chi Minh City",
+                "phoneNumber", "0901234567",
+                "paymentMethod", "COD"), token);
+    }
+
+    private String signUp() {
+        String email = scenario.key() + "-" + index + "-" + System.nanoTime() + "@loadtest.local";
+        JsonNode auth = client.post("POST /api/auth/register", "/api/auth/register", Map.of(
+                "email", email,
+                "password", "loadtest123",
+                "fullName", "Load Test User " + index,
+                "phoneNumber", "0901234567",
+                "address", "12 Nguyen Hue, District 1, Ho Chi Minh City"), null);
+        return auth != null && auth.hasNonNull("token") ? auth.get("token").asText() : null;
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private void pause() {
+        if (thinkTimeMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(thinkTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
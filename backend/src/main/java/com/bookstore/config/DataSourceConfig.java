@@ -0,0 +1,93 @@
+package com.bookstore.config;
+
+import com.bookstore.datasource.ReadWriteRoutingDataSource;
+import com.bookstore.datasource.ReadYourWritesGuard;
+import com.bookstore.datasource.WorkloadClass;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replaces Boot's single pool with one primary pool per workload class (datasource.pools.enabled=true)
+// or one shared primary pool, plus one pool per replica URL. The pools are not beans, so the statement
+// counting wrapper in MetricsConfig only wraps the routing data source, once.
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry,
+                                 @Value("${datasource.pools.enabled:true}") boolean workloadPools,
+                                 @Value("${datasource.replica.urls:}") List<String> replicaUrls,
+                                 @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+                                 @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        Map<WorkloadClass, DataSource> primaryPools = new EnumMap<>(WorkloadClass.class);
+        if (workloadPools) {
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                configurePool(pool, workload.poolName(), environment, meterRegistry);
+                primaryPools.put(workload, pool);
+            }
+        } else {
+            HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            configurePool(primary, "primary", environment, meterRegistry);
+            for (WorkloadClass workload : WorkloadClass.values()) {
+                primaryPools.put(workload, primary);
+            }
+        }
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            configurePool(replica, "replica-" + (replicas.size() + 1), environment, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryPools, replicas, readYourWritesGuard, meterRegistry));
+    }
+
+    // Hibernate would otherwise hold the first connection of a request for the whole open-in-view
+    // session, so a request that starts with a read would do its writes from the reads pool or a replica
+    @Bean
+    public HibernatePropertiesCustomizer connectionPerTransactionCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // Every pool takes the spring.datasource.hikari.* settings, then its own datasource.pools.<name>.*
+    // overrides, and reports hikaricp.* metrics (connection wait time included) under its own name
+    private static void configurePool(HikariDataSource pool, String name, Environment environment,
+                                      MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        binder.bind("datasource.pools." + name, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
@@ -2,8 +2,10 @@ package com.bookstore.controller;
 
 import com.bookstore.dto.ApiResponse;
 import com.bookstore.entity.Book;
+import com.bookstore.service.BookListSnapshot;
 import com.bookstore.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -17,20 +19,21 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookListSnapshot bookListSnapshot;
+
+    // Served from a snapshot serialized and compressed once per catalog change
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Book>>> getAllBooks() {
-        List<Book> books = bookService.getAllActiveBooks();
-        return ResponseEntity.ok(ApiResponse.success("Books retrieved successfully", books));
+    public ResponseEntity<byte[]> getAllBooks(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return bookListSnapshot.get().toResponse(acceptEncoding, ifNoneMatch);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Book>> getBookById(@PathVariable Integer id) {
-        try {
-            Book book = bookService.getBookById(id);
-            return ResponseEntity.ok(ApiResponse.success("Book found", book));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+        Book book = bookService.getBookById(id);
+        return ResponseEntity.ok(ApiResponse.success("Book found", book));
     }
 
     @GetMapping("/category/{categoryId}")
@@ -61,22 +64,14 @@ public class BookController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Book>> updateBook(@PathVariable Integer id, @RequestBody Book book) {
-        try {
-            Book updatedBook = bookService.updateBook(id, book);
-            return ResponseEntity.ok(ApiResponse.success("Book updated successfully", updatedBook));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        Book updatedBook = bookService.updateBook(id, book);
+        return ResponseEntity.ok(ApiResponse.success("Book updated successfully", updatedBook));
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteBook(@PathVariable Integer id) {
-        try {
-            bookService.deleteBook(id);
-            return ResponseEntity.ok(ApiResponse.success("Book deleted successfully"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        bookService.deleteBook(id);
+        return ResponseEntity.ok(ApiResponse.success("Book deleted successfully"));
     }
 }
@@ -0,0 +1,32 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.CacheRegionStats;
+import com.bookstore.service.SecondLevelCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheController {
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @GetMapping("/regions")
+    public ResponseEntity<ApiResponse<List<CacheRegionStats>>> getRegionStats() {
+        List<CacheRegionStats> regions = secondLevelCacheService.getRegionStats();
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved successfully", regions));
+    }
+
+    @PostMapping("/evict")
+    public ResponseEntity<ApiResponse<Void>> evictAll() {
+        secondLevelCacheService.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Cache cleared"));
+    }
+}
@@ -2,11 +2,16 @@ package com.bookstore.controller;
 
 import com.bookstore.dto.AddToCartRequest;
 import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.CartBatchRequest;
+import com.bookstore.dto.CartChanges;
+import com.bookstore.dto.CartSummary;
 import com.bookstore.entity.CartItem;
 import com.bookstore.entity.User;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.service.CartService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -28,52 +33,71 @@ public class CartController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<CartItem>>> getCart(@AuthenticationPrincipal UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
         List<CartItem> cartItems = cartService.getUserCart(user.getUserId());
         return ResponseEntity.ok(ApiResponse.success("Cart retrieved successfully", cartItems));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<CartSummary>> getCartSummary(@AuthenticationPrincipal UserDetails userDetails) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        CartSummary cart = cartService.getCartSummary(user.getUserId());
+        return ResponseEntity.ok(ApiResponse.success("Cart retrieved successfully", cart));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<CartChanges>> getCartChanges(
+            @RequestParam(required = false) Long since,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        CartChanges changes = cartService.getCartChanges(user.getUserId(), since);
+        if (changes == null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(ApiResponse.success("Cart changes retrieved successfully", changes));
+    }
+
     @PostMapping("/add")
     public ResponseEntity<ApiResponse<CartItem>> addToCart(
             @Valid @RequestBody AddToCartRequest request,
             @AuthenticationPrincipal UserDetails userDetails) {
-        try {
-            User user = userRepository.findByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            CartItem cartItem = cartService.addToCart(user.getUserId(), 
-                    request.getBookId(), request.getQuantity());
-            return ResponseEntity.ok(ApiResponse.success("Item added to cart", cartItem));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        CartItem cartItem = cartService.addToCart(user.getUserId(), 
+                request.getBookId(), request.getQuantity());
+        return ResponseEntity.ok(ApiResponse.success("Item added to cart", cartItem));
     }
 
     @PutMapping("/{cartItemId}")
     public ResponseEntity<ApiResponse<CartItem>> updateCartItem(
             @PathVariable Integer cartItemId,
             @RequestParam Integer quantity) {
-        try {
-            CartItem cartItem = cartService.updateCartItemQuantity(cartItemId, quantity);
-            return ResponseEntity.ok(ApiResponse.success("Cart updated", cartItem));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        CartItem cartItem = cartService.updateCartItemQuantity(cartItemId, quantity);
+        return ResponseEntity.ok(ApiResponse.success("Cart updated", cartItem));
     }
 
     @DeleteMapping("/{cartItemId}")
     public ResponseEntity<ApiResponse<Void>> removeFromCart(@PathVariable Integer cartItemId) {
-        try {
-            cartService.removeFromCart(cartItemId);
-            return ResponseEntity.ok(ApiResponse.success("Item removed from cart"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        cartService.removeFromCart(cartItemId);
+        return ResponseEntity.ok(ApiResponse.success("Item removed from cart"));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<CartSummary>> applyBatch(
+            @Valid @RequestBody CartBatchRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        CartSummary cart = cartService.applyBatch(user.getUserId(), request.getOperations());
+        return ResponseEntity.ok(ApiResponse.success("Cart updated", cart));
     }
 
     @DeleteMapping("/clear")
     public ResponseEntity<ApiResponse<Void>> clearCart(@AuthenticationPrincipal UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
         cartService.clearCart(user.getUserId());
         return ResponseEntity.ok(ApiResponse.success("Cart cleared"));
     }
@@ -0,0 +1,24 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.CartExpiryResult;
+import com.bookstore.service.CartExpiryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/carts")
+@PreAuthorize("hasRole('ADMIN')")
+public class CartExpiryController {
+
+    @Autowired
+    private CartExpiryService cartExpiryService;
+
+    @PostMapping("/expire")
+    public ResponseEntity<ApiResponse<CartExpiryResult>> expireIdleCarts() {
+        CartExpiryResult result = cartExpiryService.expireIdleCarts();
+        return ResponseEntity.ok(ApiResponse.success("Idle carts purged", result));
+    }
+}
@@ -4,12 +4,11 @@ import com.bookstore.dto.ApiResponse;
 import com.bookstore.entity.Category;
 import com.bookstore.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
@@ -17,20 +16,18 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    // Served from the category registry's pre-serialized, pre-compressed response
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(ApiResponse.success("Categories retrieved successfully", categories));
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return categoryService.getAllCategoriesResponse().toResponse(acceptEncoding, ifNoneMatch);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Category>> getCategoryById(@PathVariable Integer id) {
-        try {
-            Category category = categoryService.getCategoryById(id);
-            return ResponseEntity.ok(ApiResponse.success("Category found", category));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+        Category category = categoryService.getCategoryById(id);
+        return ResponseEntity.ok(ApiResponse.success("Category found", category));
     }
 
     @PostMapping
@@ -1,10 +1,15 @@
 package com.bookstore.controller;
 
 import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.BulkOrderCancelRequest;
+import com.bookstore.dto.BulkOrderStatusRequest;
+import com.bookstore.dto.BulkOrderStatusResult;
 import com.bookstore.dto.CreateOrderRequest;
 import com.bookstore.entity.Order;
 import com.bookstore.entity.User;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.resilience.DatabaseGuard;
 import com.bookstore.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,44 +31,40 @@ public class OrderController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DatabaseGuard databaseGuard;
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<Order>>> getUserOrders(
             @AuthenticationPrincipal UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
         List<Order> orders = orderService.getUserOrders(user.getUserId());
         return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orders));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Order>> getOrderById(@PathVariable Integer id) {
-        try {
-            Order order = orderService.getOrderById(id);
-            return ResponseEntity.ok(ApiResponse.success("Order found", order));
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+        Order order = orderService.getOrderById(id);
+        return ResponseEntity.ok(ApiResponse.success("Order found", order));
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<Order>> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
             @AuthenticationPrincipal UserDetails userDetails) {
-        try {
-            User user = userRepository.findByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            Order order = orderService.createOrder(
-                    user.getUserId(),
-                    request.getShippingAddress(),
-                    request.getPhoneNumber(),
-                    request.getPaymentMethod(),
-                    request.getNotes()
-            );
-            return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        databaseGuard.checkWritesAllowed();
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        Order order = orderService.createOrder(
+                user.getUserId(),
+                request.getShippingAddress(),
+                request.getPhoneNumber(),
+                request.getPaymentMethod(),
+                request.getNotes()
+        );
+        return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
     }
 
     @PutMapping("/{id}/status")
@@ -71,22 +72,31 @@ public class OrderController {
     public ResponseEntity<ApiResponse<Order>> updateOrderStatus(
             @PathVariable Integer id,
             @RequestParam String status) {
-        try {
-            Order order = orderService.updateOrderStatus(id, status);
-            return ResponseEntity.ok(ApiResponse.success("Order status updated", order));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        Order order = orderService.updateOrderStatus(id, status);
+        return ResponseEntity.ok(ApiResponse.success("Order status updated", order));
+    }
+
+    @PutMapping("/status/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<BulkOrderStatusResult>>> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        List<BulkOrderStatusResult> results = orderService.bulkUpdateOrderStatus(
+                request.getOrderIds(), request.getStatus());
+        return ResponseEntity.ok(ApiResponse.success("Bulk status update processed", results));
     }
 
     @PutMapping("/{id}/cancel")
     public ResponseEntity<ApiResponse<Void>> cancelOrder(@PathVariable Integer id) {
-        try {
-            orderService.cancelOrder(id);
-            return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        orderService.cancelOrder(id);
+        return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully"));
+    }
+
+    @PutMapping("/cancel/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<BulkOrderStatusResult>>> cancelOrders(
+            @Valid @RequestBody BulkOrderCancelRequest request) {
+        List<BulkOrderStatusResult> results = orderService.cancelOrders(request.getOrderIds());
+        return ResponseEntity.ok(ApiResponse.success("Bulk cancellation processed", results));
     }
 
     @GetMapping("/all")
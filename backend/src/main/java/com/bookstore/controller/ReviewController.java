@@ -4,6 +4,7 @@ import com.bookstore.dto.ApiResponse;
 import com.bookstore.dto.CreateReviewRequest;
 import com.bookstore.entity.Review;
 import com.bookstore.entity.User;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.UserRepository;
 import com.bookstore.service.ReviewService;
 import jakarta.validation.Valid;
@@ -49,20 +50,16 @@ public class ReviewController {
     public ResponseEntity<ApiResponse<Review>> createReview(
             @Valid @RequestBody CreateReviewRequest request,
             @AuthenticationPrincipal UserDetails userDetails) {
-        try {
-            User user = userRepository.findByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            Review review = reviewService.createReview(
-                    user.getUserId(),
-                    request.getBookId(),
-                    request.getRating(),
-                    request.getComment()
-            );
-            return ResponseEntity.ok(ApiResponse.success("Review created successfully", review));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        
+        Review review = reviewService.createReview(
+                user.getUserId(),
+                request.getBookId(),
+                request.getRating(),
+                request.getComment()
+        );
+        return ResponseEntity.ok(ApiResponse.success("Review created successfully", review));
     }
 
     @PutMapping("/{id}")
@@ -70,21 +67,13 @@ public class ReviewController {
             @PathVariable Integer id,
             @RequestParam Integer rating,
             @RequestParam(required = false) String comment) {
-        try {
-            Review review = reviewService.updateReview(id, rating, comment);
-            return ResponseEntity.ok(ApiResponse.success("Review updated successfully", review));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        Review review = reviewService.updateReview(id, rating, comment);
+        return ResponseEntity.ok(ApiResponse.success("Review updated successfully", review));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteReview(@PathVariable Integer id) {
-        try {
-            reviewService.deleteReview(id);
-            return ResponseEntity.ok(ApiResponse.success("Review deleted successfully"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
-        }
+        reviewService.deleteReview(id);
+        return ResponseEntity.ok(ApiResponse.success("Review deleted successfully"));
     }
 }
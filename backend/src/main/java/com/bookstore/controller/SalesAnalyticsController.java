@@ -0,0 +1,58 @@
+package com.bookstore.controller;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.BookSalesSummary;
+import com.bookstore.dto.CategorySalesSummary;
+import com.bookstore.dto.DailySalesSummary;
+import com.bookstore.dto.SalesBackfillResult;
+import com.bookstore.service.SalesAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class SalesAnalyticsController {
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/sales/daily")
+    public ResponseEntity<ApiResponse<List<DailySalesSummary>>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<DailySalesSummary> sales = salesAnalyticsService.getDailyTotals(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Daily sales retrieved", sales));
+    }
+
+    @GetMapping("/sales/books")
+    public ResponseEntity<ApiResponse<List<BookSalesSummary>>> getTopBooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        List<BookSalesSummary> sales = salesAnalyticsService.getTopBooks(from, to, limit);
+        return ResponseEntity.ok(ApiResponse.success("Book sales retrieved", sales));
+    }
+
+    @GetMapping("/sales/categories")
+    public ResponseEntity<ApiResponse<List<CategorySalesSummary>>> getCategorySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<CategorySalesSummary> sales = salesAnalyticsService.getCategoryTotals(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Category sales retrieved", sales));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse<SalesBackfillResult>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        SalesBackfillResult result = salesAnalyticsService.backfill(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Sales rollups rebuilt", result));
+    }
+}
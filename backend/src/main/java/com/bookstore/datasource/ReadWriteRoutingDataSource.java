@@ -0,0 +1,136 @@
+package com.bookstore.datasource;
+
+import com.bookstore.metrics.StatementLog;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands out replica connections inside read-only transactions and primary connections everywhere else,
+// each from the pool of the current workload class. Must sit behind a LazyConnectionDataSourceProxy:
+// the read-only flag of a transaction is only visible once it has begun, so the real connection has
+// to be fetched at the first statement.
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final Map<WorkloadClass, DataSource> primaryPools;
+    private final Map<String, DataSource> replicas;
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    private final Map<WorkloadClass, Counter> primaryConnections = new EnumMap<>(WorkloadClass.class);
+    private final Map<String, Counter> replicaConnections = new LinkedHashMap<>();
+    private final Counter replicaFallbacks;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // primaryPools needs an entry for every workload class; several may share one pool
+    public ReadWriteRoutingDataSource(Map<WorkloadClass, DataSource> primaryPools, Map<String, DataSource> replicas,
+                                      ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
+        this.primaryPools = new EnumMap<>(primaryPools);
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.readYourWritesGuard = readYourWritesGuard;
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            primaryConnections.put(workload, connectionCounter(meterRegistry, poolName(primaryPools.get(workload))));
+        }
+        for (String name : replicas.keySet()) {
+            replicaConnections.put(name, connectionCounter(meterRegistry, name));
+        }
+        this.replicaFallbacks = Counter.builder("bookstore.datasource.replica.fallbacks").register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return routedConnection(DataSource::getConnection);
+    }
+
+    // Routed like getConnection(); the chosen pool decides whether it can honour per-call credentials
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return routedConnection(pool -> pool.getConnection(username, password));
+    }
+
+    private Connection routedConnection(ConnectionOpener opener) throws SQLException {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && !replicas.isEmpty() && !readYourWritesGuard.isCurrentUserPinned()) {
+            Connection connection = replicaConnection(opener);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        WorkloadClass workload = WorkloadContext.current();
+        if (workload == null) {
+            workload = readOnly ? WorkloadClass.READS : WorkloadClass.CHECKOUT;
+        }
+        primaryConnections.get(workload).increment();
+        return writeTrackingConnection(opener.open(primaryPools.get(workload)));
+    }
+
+    // Round-robin over the replicas, skipping any that cannot hand out a connection
+    private Connection replicaConnection(ConnectionOpener opener) {
+        List<String> names = new ArrayList<>(replicas.keySet());
+        int start = Math.floorMod(nextReplica.getAndIncrement(), names.size());
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get((start + i) % names.size());
+            try {
+                Connection connection = opener.open(replicas.get(name));
+                replicaConnections.get(name).increment();
+                return connection;
+            } catch (SQLException e) {
+                logger.warn("Replica {} unavailable, trying the next one", name, e);
+            }
+        }
+        replicaFallbacks.increment();
+        return null;
+    }
+
+    // Pins the signed-in user to the primary once a statement that is not a select is prepared.
+    // Every write in this codebase goes through a prepared statement, Hibernate and JdbcTemplate alike.
+    private Connection writeTrackingConnection(Connection connection) {
+        if (ReadYourWritesGuard.currentUsername() == null) {
+            return connection;
+        }
+        boolean[] written = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!written[0] && (name.equals("prepareStatement") || name.equals("prepareCall"))
+                            && StatementLog.Kind.of((String) args[0]) != StatementLog.Kind.SELECT) {
+                        written[0] = true;
+                        readYourWritesGuard.recordWriteByCurrentUser();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource pool) throws SQLException;
+    }
+
+    private static String poolName(DataSource pool) {
+        return pool instanceof HikariDataSource hikari ? hikari.getPoolName() : "primary";
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("bookstore.datasource.connections").tag("pool", pool).register(meterRegistry);
+    }
+}
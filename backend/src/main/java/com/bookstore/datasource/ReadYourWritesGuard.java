@@ -0,0 +1,90 @@
+package com.bookstore.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Remembers which users wrote recently so their reads stay on the primary until the replicas have
+// caught up. Kept in memory, so it assumes a client stays on the same API instance for the window.
+@Component
+public class ReadYourWritesGuard {
+
+    // Expired pins are only swept once the map grows past this
+    private static final int SWEEP_THRESHOLD = 10000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${datasource.replica.read-your-writes-ms:5000}")
+    private long windowMs;
+
+    private final ConcurrentHashMap<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("bookstore.datasource.pinned.users", pinnedUntil, Map::size).register(meterRegistry);
+    }
+
+    public void recordWrite(String username) {
+        pinnedUntil.put(username, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs));
+        if (pinnedUntil.size() > SWEEP_THRESHOLD) {
+            long now = System.nanoTime();
+            pinnedUntil.values().removeIf(until -> until - now < 0);
+        }
+    }
+
+    // Pins the signed-in user once the surrounding transaction commits, or straight away outside one
+    public void recordWriteByCurrentUser() {
+        String username = currentUsername();
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordWrite(username);
+                }
+            });
+        } else {
+            recordWrite(username);
+        }
+    }
+
+    public boolean isCurrentUserPinned() {
+        String username = currentUsername();
+        if (username == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(username);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() < 0) {
+            pinnedUntil.remove(username, until);
+            return false;
+        }
+        return true;
+    }
+
+    static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookstore.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts the connections used by the annotated method, or every method of the annotated class, in the
+// given workload's pool. Only takes effect where no transaction is open yet and no outer @Workload
+// has already chosen, so work joining a caller's transaction stays on the caller's connection. Takes
+// precedence over the default WorkloadFilter binds for the request.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Workload {
+
+    WorkloadClass value();
+}
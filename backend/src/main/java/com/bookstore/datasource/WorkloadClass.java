@@ -0,0 +1,22 @@
+package com.bookstore.datasource;
+
+// Each class of work gets its own primary connection pool
+public enum WorkloadClass {
+
+    // Writes and anything else outside a read-only transaction, and every statement of a checkout request
+    CHECKOUT("checkout"),
+    // Read-only transactions behind the public catalog
+    READS("reads"),
+    // Admin screens, reports, exports and batch jobs; only ever set explicitly with @Workload
+    ADMIN("admin");
+
+    private final String poolName;
+
+    WorkloadClass(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String poolName() {
+        return poolName;
+    }
+}
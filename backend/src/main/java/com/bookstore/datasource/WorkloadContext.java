@@ -0,0 +1,48 @@
+package com.bookstore.datasource;
+
+import java.util.function.Supplier;
+
+// The workload class chosen for the current thread, read by the routing data source
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<WorkloadClass> REQUEST = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    // null when neither a @Workload nor the current request has chosen one on this thread
+    public static WorkloadClass current() {
+        WorkloadClass workload = CURRENT.get();
+        return workload != null ? workload : REQUEST.get();
+    }
+
+    // Whether a @Workload has chosen; the request's default gives way to one
+    public static boolean isChosen() {
+        return CURRENT.get() != null;
+    }
+
+    // The default for everything the current request runs, set by WorkloadFilter
+    public static void bindRequest(WorkloadClass workload) {
+        REQUEST.set(workload);
+    }
+
+    public static void clearRequest() {
+        REQUEST.remove();
+    }
+
+    // For work handed to other threads, which do not see the caller's workload
+    public static <T> T call(WorkloadClass workload, Supplier<T> work) {
+        WorkloadClass previous = CURRENT.get();
+        CURRENT.set(workload);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
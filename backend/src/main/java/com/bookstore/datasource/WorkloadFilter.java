@@ -0,0 +1,52 @@
+package com.bookstore.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Puts every statement of a cart or order-placing request on the checkout pool, the user lookups of the
+// JWT filter and the controllers included, so a catalog storm draining the reads pool cannot stall
+// checkout. Runs ahead of security; an explicit @Workload further in still takes precedence.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class WorkloadFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isCheckout(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        WorkloadContext.bindRequest(WorkloadClass.CHECKOUT);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            WorkloadContext.clearRequest();
+        }
+    }
+
+    // Also the checkout lane of the concurrency limiter. The admin status and bulk endpoints under /api/orders
+    // are left out, so they run on the admin pool their @Workload asks for and do not take checkout's share.
+    public static boolean isCheckout(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/cart")) {
+            return true;
+        }
+        return path.startsWith("/api/orders") && !"GET".equals(request.getMethod()) && !isAdminOrderWrite(path);
+    }
+
+    private static boolean isAdminOrderWrite(String path) {
+        return path.equals("/api/orders/status/bulk") || path.equals("/api/orders/cancel/bulk")
+                || path.matches("/api/orders/[^/]+/status");
+    }
+}
@@ -0,0 +1,13 @@
+package com.bookstore.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderCancelRequest {
+    
+    @NotEmpty(message = "Order IDs are required")
+    private List<Integer> orderIds;
+}
@@ -0,0 +1,17 @@
+package com.bookstore.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkOrderStatusRequest {
+    
+    @NotEmpty(message = "Order IDs are required")
+    private List<Integer> orderIds;
+    
+    @NotBlank(message = "Status is required")
+    private String status; // CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+}
@@ -0,0 +1,15 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResult {
+    private Integer orderId;
+    private Boolean success;
+    private String previousStatus;
+    private String message;
+}
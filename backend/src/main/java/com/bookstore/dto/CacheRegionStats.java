@@ -0,0 +1,19 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStats {
+    private String region;
+    private Long hits;
+    private Long misses;
+    private Long puts;
+    // null until the region has been read
+    private Double hitRatio;
+    // null when the cache provider does not report it
+    private Long entriesInMemory;
+}
@@ -0,0 +1,15 @@
+package com.bookstore.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    
+    @NotEmpty(message = "Operations are required")
+    @Valid
+    private List<CartOperation> operations;
+}
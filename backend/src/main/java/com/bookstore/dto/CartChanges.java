@@ -0,0 +1,18 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartChanges {
+    private Long version;
+    // true when items is the whole cart and the client should replace its copy
+    private Boolean full;
+    private List<CartLine> items;
+    private List<Integer> removedCartItemIds;
+}
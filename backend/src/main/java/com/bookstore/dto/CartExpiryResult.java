@@ -0,0 +1,20 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartExpiryResult {
+    private LocalDateTime cutoff;
+    private Integer chunks;
+    private Integer cartsPurged;
+    private Integer rowsPurged;
+    // false when the run stopped at its time budget with idle carts left for the next run
+    private Boolean completed;
+    private Long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineChange {
+    private Integer userId;
+    private Integer bookId;
+    private Integer quantity; // 0 removes the line
+    private Boolean persisted; // whether a cart_items row is expected to exist; decides UPDATE or INSERT first
+}
@@ -0,0 +1,17 @@
+package com.bookstore.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class CartOperation {
+    
+    @NotBlank(message = "Operation type is required")
+    private String type; // ADD, SET_QUANTITY, REMOVE, CLEAR
+    
+    private Integer bookId;
+    
+    private Integer cartItemId;
+    
+    private Integer quantity;
+}
@@ -0,0 +1,14 @@
+package com.bookstore.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class CategoryListItem {
+    Integer categoryId;
+    String categoryName;
+    String description;
+    LocalDateTime createdAt;
+    Long activeBookCount;
+}
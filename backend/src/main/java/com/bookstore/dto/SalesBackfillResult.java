@@ -0,0 +1,19 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBackfillResult {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Integer chunks;
+    private Integer bookRows;
+    private Integer categoryRows;
+    private Long elapsedMillis;
+}
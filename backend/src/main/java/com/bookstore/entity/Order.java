@@ -1,19 +1,25 @@
 package com.bookstore.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "orders")
 @Data
 @NoArgsConstructor
@@ -67,10 +73,37 @@ public class Order {
     // Relationships
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<OrderItem> orderItems = new HashSet<>();
 
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+
+        public boolean canTransitionTo(OrderStatus target) {
+            switch (this) {
+                case PENDING:
+                    return target == CONFIRMED || target == CANCELLED;
+                case CONFIRMED:
+                    return target == PROCESSING || target == CANCELLED;
+                case PROCESSING:
+                    return target == SHIPPED;
+                case SHIPPED:
+                    return target == DELIVERED;
+                default:
+                    return false;
+            }
+        }
+
+        public List<OrderStatus> allowedSources() {
+            List<OrderStatus> sources = new ArrayList<>();
+            for (OrderStatus status : values()) {
+                if (status.canTransitionTo(this)) {
+                    sources.add(status);
+                }
+            }
+            return sources;
+        }
     }
 
     public enum PaymentMethod {
@@ -27,6 +27,10 @@ public class OrderItem {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    // The book's category when it was ordered; the category sales counters are keyed on it
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
@@ -0,0 +1,8 @@
+package com.bookstore.exception;
+
+public class BadRequestException extends DomainException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bookstore.exception;
+
+// The request is valid but clashes with the current state, e.g. a duplicate email or a shipped order
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookstore.exception;
+
+// Expected outcomes of a request (missing rows, sold-out books, bad input) rather than bugs. They are thrown
+// on hot paths and never logged, so the stack trace is not captured: filling it in costs far more than the
+// throw itself, and GlobalExceptionHandler only ever reads the message.
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected DomainException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bookstore.exception;
+
+public class InsufficientStockException extends ConflictException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
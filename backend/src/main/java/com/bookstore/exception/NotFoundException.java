@@ -0,0 +1,8 @@
+package com.bookstore.exception;
+
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
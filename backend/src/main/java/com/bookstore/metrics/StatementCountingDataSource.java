@@ -0,0 +1,103 @@
+package com.bookstore.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+// Counts statements issued on the current thread while a count is open. Covers Hibernate and
+// JdbcTemplate alike because both borrow connections from this data source.
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<StatementLog> LOG = new ThreadLocal<>();
+
+    private static final Set<String> STATEMENT_EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public static void startCount() {
+        LOG.set(new StatementLog(false));
+    }
+
+    public static int currentCount() {
+        StatementLog log = LOG.get();
+        return log != null ? log.total() : 0;
+    }
+
+    public static int stopCount() {
+        int count = currentCount();
+        LOG.remove();
+        return count;
+    }
+
+    // Like startCount, but keeps every statement's SQL for the caller to inspect
+    public static void startRecording() {
+        LOG.set(new StatementLog(true));
+    }
+
+    public static StatementLog stopRecording() {
+        StatementLog log = LOG.get();
+        LOG.remove();
+        return log != null ? log : new StatementLog(false);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    // Prepared statements count once when prepared; plain statements count per SQL string executed
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                        record((String) args[0]);
+                    }
+                    Object result = invoke(method, connection, args);
+                    if (name.equals("createStatement")) {
+                        return countingStatement((Statement) result);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement countingStatement(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (STATEMENT_EXECUTE_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                        record(sql);
+                    }
+                    return invoke(method, statement, args);
+                });
+    }
+
+    private static void record(String sql) {
+        StatementLog log = LOG.get();
+        if (log != null) {
+            log.record(sql);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bookstore.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// Statements issued on one thread while a count was open, by kind. The SQL itself is only kept
+// when recording, so the always-on per-request metric stays a handful of integer increments.
+public class StatementLog {
+
+    public enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, MERGE, OTHER;
+
+        public static Kind of(String sql) {
+            if (sql == null) {
+                return OTHER;
+            }
+            int i = 0;
+            while (i < sql.length()) {
+                char c = sql.charAt(i);
+                if (Character.isWhitespace(c) || c == '(') {
+                    i++;
+                } else if (sql.startsWith("/*", i)) {
+                    int end = sql.indexOf("*/", i + 2);
+                    i = end < 0 ? sql.length() : end + 2;
+                } else if (sql.startsWith("--", i)) {
+                    int end = sql.indexOf('\n', i);
+                    i = end < 0 ? sql.length() : end + 1;
+                } else {
+                    break;
+                }
+            }
+            int end = i;
+            while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+                end++;
+            }
+            return switch (sql.substring(i, end).toUpperCase(Locale.ROOT)) {
+                case "SELECT", "WITH" -> SELECT;
+                case "INSERT" -> INSERT;
+                case "UPDATE" -> UPDATE;
+                case "DELETE" -> DELETE;
+                case "MERGE" -> MERGE;
+                default -> OTHER;
+            };
+        }
+    }
+
+    private final int[] counts = new int[Kind.values().length];
+    private final List<String> statements;
+
+    StatementLog(boolean keepSql) {
+        this.statements = keepSql ? new ArrayList<>() : null;
+    }
+
+    void record(String sql) {
+        counts[Kind.of(sql).ordinal()]++;
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+
+    public int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int count(Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    // INSERT, UPDATE, DELETE and MERGE together
+    public int writes() {
+        return count(Kind.INSERT) + count(Kind.UPDATE) + count(Kind.DELETE) + count(Kind.MERGE);
+    }
+
+    public List<String> statements() {
+        return statements != null ? Collections.unmodifiableList(statements) : List.of();
+    }
+}
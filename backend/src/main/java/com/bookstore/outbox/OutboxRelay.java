@@ -0,0 +1,132 @@
+package com.bookstore.outbox;
+
+import com.bookstore.datasource.Workload;
+import com.bookstore.datasource.WorkloadClass;
+import com.bookstore.entity.OutboxEvent;
+import com.bookstore.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<OutboxSink> sinks = new ArrayList<>();
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.retention.enabled:true}")
+    private boolean retentionEnabled;
+
+    @Value("${outbox.retention.days:7}")
+    private int retentionDays;
+
+    @Value("${outbox.retention.chunk-size:500}")
+    private int retentionChunkSize;
+
+    @Value("${outbox.retention.pause-ms:200}")
+    private long retentionPauseMs;
+
+    @Value("${outbox.retention.max-runtime-ms:60000}")
+    private long retentionMaxRuntimeMs;
+
+    // Retention only deletes delivered events, so a relay with nowhere to deliver them would let the outbox
+    // grow for as long as orders are placed
+    @PostConstruct
+    public void checkSinks() {
+        if (enabled && sinks.isEmpty()) {
+            throw new IllegalStateException("outbox.relay.enabled is true but no outbox sink is configured: "
+                    + "set outbox.sink.file.path or outbox.sink.memory.enabled=true, or disable the relay");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    // Single-threaded by the scheduler, so batches go out in event_id order. Identities are assigned at insert,
+    // not at commit, so an event can become visible after a later one; only the events of one order are
+    // guaranteed to go out in order, since their transactions are serialized by the order row.
+    public synchronized int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(batch);
+            } catch (Exception e) {
+                // Nothing is marked, so the whole batch is retried on the next run (at-least-once)
+                logger.warn("Outbox sink {} failed, retrying {} events later", sink.getName(), batch.size(), e);
+                return 0;
+            }
+        }
+
+        List<Long> eventIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            eventIds.add(event.getEventId());
+        }
+        outboxEventRepository.markPublished(eventIds, LocalDateTime.now());
+        return batch.size();
+    }
+
+    // Delivered events are only kept for replay; unpublished ones are never touched. Each chunk is its own
+    // short delete with a pause in between, like the cart expiry sweep.
+    @Workload(WorkloadClass.ADMIN)
+    @Scheduled(cron = "${outbox.retention.cron:0 45 3 * * *}")
+    public void purgePublished() {
+        if (!retentionEnabled) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = 0;
+        while (true) {
+            List<Long> eventIds = outboxEventRepository.findPublishedBefore(cutoff,
+                    PageRequest.of(0, retentionChunkSize));
+            if (eventIds.isEmpty()) {
+                break;
+            }
+            deleted += outboxEventRepository.deleteByIds(eventIds);
+            if (eventIds.size() < retentionChunkSize
+                    || System.currentTimeMillis() - startedAt >= retentionMaxRuntimeMs) {
+                break;
+            }
+            try {
+                Thread.sleep(retentionPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("Outbox retention deleted {} events published before {} in {} ms",
+                deleted, cutoff, System.currentTimeMillis() - startedAt);
+    }
+}
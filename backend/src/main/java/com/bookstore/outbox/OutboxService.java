@@ -0,0 +1,108 @@
+package com.bookstore.outbox;
+
+import com.bookstore.dto.BulkOrderStatusResult;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.OrderItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+
+    public static final String ORDER_CREATED = "ORDER_CREATED";
+    public static final String ORDER_STATUS_CHANGED = "ORDER_STATUS_CHANGED";
+    public static final String ORDER_PAYMENT_STATUS_CHANGED = "ORDER_PAYMENT_STATUS_CHANGED";
+    public static final String ORDER_CANCELLED = "ORDER_CANCELLED";
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO order_outbox (order_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrderCreated(Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getOrderId());
+        payload.put("userId", order.getUser().getUserId());
+        payload.put("orderDate", order.getOrderDate().toString());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("status", order.getStatus().name());
+        payload.put("paymentMethod", order.getPaymentMethod().name());
+        payload.put("paymentStatus", order.getPaymentStatus().name());
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("bookId", orderItem.getBook().getBookId());
+            item.put("quantity", orderItem.getQuantity());
+            item.put("priceAtPurchase", orderItem.getPriceAtPurchase());
+            item.put("subtotal", orderItem.getSubtotal());
+            items.add(item);
+        }
+        payload.put("items", items);
+
+        append(Collections.singletonList(new Object[]{order.getOrderId(), ORDER_CREATED, toJson(payload), now()}));
+    }
+
+    // Only successful results produce events; all of them are inserted in one JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(String eventType, List<BulkOrderStatusResult> results, String status) {
+        Timestamp createdAt = now();
+        List<Object[]> rows = new ArrayList<>();
+        for (BulkOrderStatusResult result : results) {
+            if (!result.getSuccess()) {
+                continue;
+            }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("orderId", result.getOrderId());
+            payload.put("previousStatus", result.getPreviousStatus());
+            payload.put("status", status);
+            rows.add(new Object[]{result.getOrderId(), eventType, toJson(payload), createdAt});
+        }
+        append(rows);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPaymentStatusChanged(Integer orderId, String previousPaymentStatus, String paymentStatus) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId);
+        payload.put("previousPaymentStatus", previousPaymentStatus);
+        payload.put("paymentStatus", paymentStatus);
+        append(Collections.singletonList(new Object[]{orderId, ORDER_PAYMENT_STATUS_CHANGED, toJson(payload), now()}));
+    }
+
+    private void append(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        }
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize order event", e);
+        }
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
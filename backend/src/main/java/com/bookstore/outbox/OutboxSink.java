@@ -0,0 +1,14 @@
+package com.bookstore.outbox;
+
+import com.bookstore.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxSink {
+
+    String getName();
+
+    // Receives events in event_id order, which is commit order for the events of one order but not across
+    // orders; throwing makes the relay retry the whole batch later
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -1,19 +1,34 @@
 package com.bookstore.repository;
 
 import com.bookstore.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Integer> {
     
+    // Book JSON includes its category, so every list fetches it in the same query
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Book> findById(Integer bookId);
+    
+    @EntityGraph(attributePaths = "category")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByIsActiveTrue();
     
+    @EntityGraph(attributePaths = "category")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByCategoryCategoryIdAndIsActiveTrue(Integer categoryId);
     
     List<Book> findByTitleContainingIgnoreCaseAndIsActiveTrue(String title);
@@ -22,11 +37,29 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
     
     Optional<Book> findByIsbn(String isbn);
     
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT b FROM Book b WHERE b.isActive = true AND " +
            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     List<Book> searchBooks(@Param("keyword") String keyword);
     
+    @EntityGraph(attributePaths = "category")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT b FROM Book b WHERE b.isActive = true ORDER BY b.createdAt DESC")
     List<Book> findNewBooks();
+    
+    @Query("SELECT b.category.categoryId, COUNT(b) FROM Book b WHERE b.isActive = true GROUP BY b.category.categoryId")
+    List<Object[]> countActiveBooksByCategory();
+    
+    @Query("SELECT b.bookId, b.stockQuantity FROM Book b WHERE b.bookId IN :bookIds")
+    List<Object[]> findStockByBookIds(@Param("bookIds") Collection<Integer> bookIds);
+    
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE books SET stock_quantity = stock_quantity + " +
+           "(SELECT SUM(oi.quantity) FROM order_items oi " +
+           "WHERE oi.book_id = books.book_id AND oi.order_id IN (:orderIds)) " +
+           "WHERE book_id IN (SELECT oi.book_id FROM order_items oi WHERE oi.order_id IN (:orderIds))",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    int restoreStockForOrders(@Param("orderIds") Collection<Integer> orderIds);
 }
@@ -1,9 +1,12 @@
 package com.bookstore.repository;
 
+import com.bookstore.dto.CartLine;
 import com.bookstore.entity.CartItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,16 +14,34 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
+public interface CartItemRepository extends JpaRepository<CartItem, Integer>, CartItemRepositoryCustom {
     
+    @EntityGraph(attributePaths = {"book", "book.category"})
     List<CartItem> findByUserUserId(Integer userId);
     
+    @Query("SELECT new com.bookstore.dto.CartLine(c.cartItemId, b.bookId, b.title, b.coverImageUrl, " +
+           "b.price, c.quantity, b.price * c.quantity) " +
+           "FROM CartItem c JOIN c.book b WHERE c.user.userId = :userId ORDER BY c.cartItemId")
+    List<CartLine> findCartLines(@Param("userId") Integer userId);
+    
+    // Each row carries its line plus the cart-wide total and item count computed by window aggregates
+    @Query("SELECT c.cartItemId, b.bookId, b.title, b.coverImageUrl, b.price, c.quantity, " +
+           "b.price * c.quantity, SUM(b.price * c.quantity) OVER (), SUM(c.quantity) OVER () " +
+           "FROM CartItem c JOIN c.book b WHERE c.user.userId = :userId ORDER BY c.cartItemId")
+    List<Object[]> findCartSummaryRows(@Param("userId") Integer userId);
+    
+    @Query("SELECT c.cartItemId, c.book.bookId, c.quantity, c.addedAt FROM CartItem c " +
+           "WHERE c.user.userId = :userId ORDER BY c.cartItemId")
+    List<Object[]> findLineStates(@Param("userId") Integer userId);
+    
+    @Query("SELECT c.user.userId FROM CartItem c WHERE c.cartItemId = :cartItemId")
+    Optional<Integer> findUserIdByCartItemId(@Param("cartItemId") Integer cartItemId);
+    
     Optional<CartItem> findByUserUserIdAndBookBookId(Integer userId, Integer bookId);
     
-    @Modifying
-    @Transactional
-    @Query("DELETE FROM CartItem c WHERE c.user.userId = :userId")
-    void deleteByUserId(Integer userId);
+    @Query("SELECT c.user.userId, b.bookId, b.stockQuantity, c.addedAt FROM CartItem c JOIN c.book b " +
+           "WHERE c.cartItemId = :cartItemId")
+    List<Object[]> findLineDetails(@Param("cartItemId") Integer cartItemId);
     
     @Modifying
     @Transactional
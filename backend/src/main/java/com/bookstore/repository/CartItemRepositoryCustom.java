@@ -0,0 +1,38 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.CartLine;
+import com.bookstore.dto.CartLineChange;
+import com.bookstore.entity.CartItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface CartItemRepositoryCustom {
+    
+    Optional<CartItem> upsertQuantity(Integer userId, Integer bookId, Integer quantity);
+    
+    void applyChanges(Collection<CartLineChange> changes);
+    
+    // Bumps the versions in user id order and keeps the rows locked until commit, so cart writers that lock
+    // first also write first
+    Map<Integer, Long> lockCartVersions(Collection<Integer> userIds);
+    
+    // For changes whose users were already locked by lockCartVersions
+    void applyChanges(Collection<CartLineChange> changes, Map<Integer, Long> versions);
+    
+    void clearLines(Integer userId);
+    
+    // {version, resetVersion}; zeros when the user's cart has never changed
+    long[] findCartVersion(Integer userId);
+    
+    List<CartLine> findCartLinesChangedSince(Integer userId, long version);
+    
+    List<Integer> findRemovedCartItemIdsSince(Integer userId, long version);
+    
+    List<Integer> findIdleCartUserIds(LocalDateTime cutoff, Integer afterUserId, int limit);
+    
+    int purgeIdleCarts(Collection<Integer> userIds, LocalDateTime cutoff);
+}
@@ -0,0 +1,345 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.CartLine;
+import com.bookstore.dto.CartLineChange;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.CartItem;
+import com.bookstore.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+
+    // Insert-or-increment with the stock check in the same statement; HOLDLOCK closes the double-tap race
+    private static final String MERGE_CART_ITEM =
+            "MERGE cart_items WITH (HOLDLOCK) AS t " +
+            "USING (SELECT book_id, stock_quantity FROM books WHERE book_id = ?) AS s " +
+            "ON t.user_id = ? AND t.book_id = s.book_id " +
+            "WHEN MATCHED AND s.stock_quantity >= ? THEN UPDATE SET t.quantity = t.quantity + ?, t.cart_version = ? " +
+            "WHEN NOT MATCHED AND s.stock_quantity >= ? THEN " +
+            "INSERT (user_id, book_id, quantity, added_at, cart_version) VALUES (?, s.book_id, ?, CURRENT_TIMESTAMP, ?) " +
+            "OUTPUT inserted.cart_item_id, inserted.quantity, inserted.added_at;";
+
+    private static final String UPDATE_CART_ITEM =
+            "UPDATE cart_items SET quantity = quantity + ?, cart_version = ? WHERE user_id = ? AND book_id = ? " +
+            "AND EXISTS (SELECT 1 FROM books b WHERE b.book_id = ? AND b.stock_quantity >= ?)";
+
+    private static final String INSERT_CART_ITEM =
+            "INSERT INTO cart_items (user_id, book_id, quantity, added_at, cart_version) " +
+            "SELECT ?, b.book_id, ?, CURRENT_TIMESTAMP, ? FROM books b " +
+            "WHERE b.book_id = ? AND b.stock_quantity >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items c WHERE c.user_id = ? AND c.book_id = ?)";
+
+    private static final String SELECT_CART_ITEM =
+            "SELECT cart_item_id, quantity, added_at FROM cart_items WHERE user_id = ? AND book_id = ?";
+
+    // Tombstone the line before deleting it so delta sync can report the removal
+    private static final String INSERT_REMOVAL =
+            "INSERT INTO cart_item_removals (cart_item_id, user_id, book_id, cart_version, removed_at) " +
+            "SELECT cart_item_id, user_id, book_id, ?, CURRENT_TIMESTAMP FROM cart_items WHERE user_id = ? AND book_id = ?";
+
+    private static final String DELETE_LINE =
+            "DELETE FROM cart_items WHERE user_id = ? AND book_id = ?";
+
+    private static final String UPDATE_QUANTITY =
+            "UPDATE cart_items SET quantity = ?, cart_version = ? WHERE user_id = ? AND book_id = ?";
+
+    private static final String INSERT_LINE =
+            "INSERT INTO cart_items (user_id, book_id, quantity, added_at, cart_version) " +
+            "SELECT ?, ?, ?, CURRENT_TIMESTAMP, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM cart_items c WHERE c.user_id = ? AND c.book_id = ?)";
+
+    private static final String DELETE_CART =
+            "DELETE FROM cart_items WHERE user_id = ?";
+
+    private static final String DELETE_REMOVALS =
+            "DELETE FROM cart_item_removals WHERE user_id = ?";
+
+    // Bumps the version and returns it in one statement; the row lock serialises a user's cart writes
+    private static final String MERGE_CART_VERSION =
+            "MERGE cart_versions WITH (HOLDLOCK) AS t " +
+            "USING (SELECT ? AS user_id) AS s ON t.user_id = s.user_id " +
+            "WHEN MATCHED THEN UPDATE SET t.version = t.version + 1, t.updated_at = CURRENT_TIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, version, reset_version, updated_at) " +
+            "VALUES (s.user_id, 1, 0, CURRENT_TIMESTAMP) " +
+            "OUTPUT inserted.version;";
+
+    private static final String UPDATE_CART_VERSION =
+            "UPDATE cart_versions SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE user_id = ?";
+
+    private static final String INSERT_CART_VERSION =
+            "INSERT INTO cart_versions (user_id, version, reset_version, updated_at) VALUES (?, 1, 0, CURRENT_TIMESTAMP)";
+
+    private static final String RESET_CART_VERSION =
+            "UPDATE cart_versions SET reset_version = version WHERE user_id = ?";
+
+    private static final String SELECT_CART_VERSION =
+            "SELECT version, reset_version FROM cart_versions WHERE user_id = ?";
+
+    private static final String SELECT_CHANGED_LINES =
+            "SELECT c.cart_item_id, b.book_id, b.title, b.cover_image_url, b.price, c.quantity " +
+            "FROM cart_items c JOIN books b ON b.book_id = c.book_id " +
+            "WHERE c.user_id = ? AND c.cart_version > ? ORDER BY c.cart_item_id";
+
+    // Keyset walk over (user_id, added_at); a cart is idle when nothing was added or changed since the cutoff
+    private static final String SELECT_IDLE_USER_IDS =
+            "SELECT DISTINCT c.user_id FROM cart_items c " +
+            "WHERE c.user_id > ? AND c.added_at < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items n WHERE n.user_id = c.user_id AND n.added_at >= ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_versions v WHERE v.user_id = c.user_id AND v.updated_at >= ?) " +
+            "ORDER BY c.user_id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    // Every purge statement re-checks both idleness conditions of the candidate scan, so a cart that gained a
+    // line or had a quantity changed (or a write-behind flush land) since the scan keeps its lines and history
+    private static final String DELETE_IDLE_LINES =
+            "DELETE FROM cart_items WHERE user_id IN (:userIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items n WHERE n.user_id = cart_items.user_id AND n.added_at >= :cutoff) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_versions v WHERE v.user_id = cart_items.user_id AND v.updated_at >= :cutoff)";
+
+    private static final String DELETE_IDLE_REMOVALS =
+            "DELETE FROM cart_item_removals WHERE user_id IN (:userIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items n WHERE n.user_id = cart_item_removals.user_id AND n.added_at >= :cutoff) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_versions v WHERE v.user_id = cart_item_removals.user_id AND v.updated_at >= :cutoff)";
+
+    // Runs last, since it moves updated_at past the cutoff
+    private static final String RESET_IDLE_VERSIONS =
+            "UPDATE cart_versions SET reset_version = version + 1, version = version + 1, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE user_id IN (:userIds) AND updated_at < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items n WHERE n.user_id = cart_versions.user_id AND n.added_at >= :cutoff)";
+
+    private static final String SELECT_REMOVED_IDS =
+            "SELECT cart_item_id FROM cart_item_removals WHERE user_id = ? AND cart_version > ? ORDER BY cart_item_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean sqlServer;
+
+    @Override
+    public Optional<CartItem> upsertQuantity(Integer userId, Integer bookId, Integer quantity) {
+        RowMapper<CartItem> rowMapper = (rs, rowNum) -> toCartItem(
+                rs.getInt("cart_item_id"), userId, bookId, rs.getInt("quantity"), rs.getTimestamp("added_at"));
+
+        long version = nextVersion(userId);
+        if (isSqlServer()) {
+            List<CartItem> rows = jdbcTemplate.query(MERGE_CART_ITEM, rowMapper,
+                    bookId, userId, quantity, quantity, version, quantity, userId, quantity, version);
+            return rows.stream().findFirst();
+        }
+
+        // Conditional update/insert for databases without MERGE ... OUTPUT (embedded test databases)
+        if (!incrementExisting(userId, bookId, quantity, version)) {
+            try {
+                if (jdbcTemplate.update(INSERT_CART_ITEM, userId, quantity, version, bookId, quantity, userId, bookId) == 0
+                        && !incrementExisting(userId, bookId, quantity, version)) {
+                    return Optional.empty();
+                }
+            } catch (DuplicateKeyException e) {
+                if (!incrementExisting(userId, bookId, quantity, version)) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return jdbcTemplate.query(SELECT_CART_ITEM, rowMapper, userId, bookId).stream().findFirst();
+    }
+
+    // One version bump per user, then a DELETE, an UPDATE and an INSERT batch
+    @Override
+    public void applyChanges(Collection<CartLineChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Integer> userIds = new ArrayList<>();
+        for (CartLineChange change : changes) {
+            userIds.add(change.getUserId());
+        }
+        applyChanges(changes, lockCartVersions(userIds));
+    }
+
+    // In user id order so concurrent multi-user flushes lock cart_versions rows consistently
+    @Override
+    public Map<Integer, Long> lockCartVersions(Collection<Integer> userIds) {
+        Map<Integer, Long> versions = new TreeMap<>();
+        for (Integer userId : userIds) {
+            versions.put(userId, null);
+        }
+        for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+            entry.setValue(nextVersion(entry.getKey()));
+        }
+        return versions;
+    }
+
+    // A persisted flag can be stale when another writer removed or re-added the line first, so an UPDATE that
+    // matches no row becomes an INSERT and an INSERT that finds the row becomes an UPDATE; no change is dropped
+    @Override
+    public void applyChanges(Collection<CartLineChange> changes, Map<Integer, Long> versions) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> removals = new ArrayList<>();
+        List<CartLineChange> updates = new ArrayList<>();
+        List<CartLineChange> inserts = new ArrayList<>();
+        for (CartLineChange change : changes) {
+            if (change.getQuantity() <= 0) {
+                // Deleting a line that has no row is a no-op, so removals do not trust the flag
+                removals.add(new Object[]{versions.get(change.getUserId()), change.getUserId(), change.getBookId()});
+                deletes.add(new Object[]{change.getUserId(), change.getBookId()});
+            } else if (change.getPersisted()) {
+                updates.add(change);
+            } else {
+                inserts.add(change);
+            }
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_REMOVAL, removals);
+            jdbcTemplate.batchUpdate(DELETE_LINE, deletes);
+        }
+        if (!updates.isEmpty()) {
+            inserts.addAll(unmatched(updates, updateQuantities(updates, versions)));
+        }
+        if (!inserts.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(inserts.size());
+            for (CartLineChange change : inserts) {
+                rows.add(new Object[]{change.getUserId(), change.getBookId(), change.getQuantity(),
+                        versions.get(change.getUserId()), change.getUserId(), change.getBookId()});
+            }
+            List<CartLineChange> existing = unmatched(inserts, jdbcTemplate.batchUpdate(INSERT_LINE, rows));
+            if (!existing.isEmpty()) {
+                updateQuantities(existing, versions);
+            }
+        }
+    }
+
+    private int[] updateQuantities(List<CartLineChange> changes, Map<Integer, Long> versions) {
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (CartLineChange change : changes) {
+            rows.add(new Object[]{change.getQuantity(), versions.get(change.getUserId()),
+                    change.getUserId(), change.getBookId()});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_QUANTITY, rows);
+    }
+
+    // Drivers that cannot report per-statement counts return SUCCESS_NO_INFO, which counts as a match
+    private static List<CartLineChange> unmatched(List<CartLineChange> changes, int[] counts) {
+        List<CartLineChange> missed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missed.add(changes.get(i));
+            }
+        }
+        return missed;
+    }
+
+    // Tombstones are dropped with the lines; clients older than the reset resync the whole cart
+    @Override
+    public void clearLines(Integer userId) {
+        nextVersion(userId);
+        jdbcTemplate.update(RESET_CART_VERSION, userId);
+        jdbcTemplate.update(DELETE_REMOVALS, userId);
+        jdbcTemplate.update(DELETE_CART, userId);
+    }
+
+    @Override
+    public long[] findCartVersion(Integer userId) {
+        List<long[]> rows = jdbcTemplate.query(SELECT_CART_VERSION,
+                (rs, rowNum) -> new long[]{rs.getLong("version"), rs.getLong("reset_version")}, userId);
+        return rows.isEmpty() ? new long[]{0L, 0L} : rows.get(0);
+    }
+
+    @Override
+    public List<CartLine> findCartLinesChangedSince(Integer userId, long version) {
+        return jdbcTemplate.query(SELECT_CHANGED_LINES, (rs, rowNum) -> {
+            BigDecimal price = rs.getBigDecimal("price");
+            int quantity = rs.getInt("quantity");
+            return new CartLine(rs.getInt("cart_item_id"), rs.getInt("book_id"), rs.getString("title"),
+                    rs.getString("cover_image_url"), price, quantity, price.multiply(BigDecimal.valueOf(quantity)));
+        }, userId, version);
+    }
+
+    @Override
+    public List<Integer> findRemovedCartItemIdsSince(Integer userId, long version) {
+        return jdbcTemplate.queryForList(SELECT_REMOVED_IDS, Integer.class, userId, version);
+    }
+
+    @Override
+    public List<Integer> findIdleCartUserIds(LocalDateTime cutoff, Integer afterUserId, int limit) {
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        return jdbcTemplate.queryForList(SELECT_IDLE_USER_IDS, Integer.class,
+                afterUserId, cutoffTimestamp, cutoffTimestamp, cutoffTimestamp, limit);
+    }
+
+    @Override
+    public int purgeIdleCarts(Collection<Integer> userIds, LocalDateTime cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("cutoff", Timestamp.valueOf(cutoff));
+        int purged = namedParameterJdbcTemplate.update(DELETE_IDLE_LINES, params);
+        // Purged carts are resynced in full by delta-sync clients
+        namedParameterJdbcTemplate.update(DELETE_IDLE_REMOVALS, params);
+        namedParameterJdbcTemplate.update(RESET_IDLE_VERSIONS, params);
+        return purged;
+    }
+
+    // Must run inside the caller's transaction so the bump commits or rolls back with the lines
+    private long nextVersion(Integer userId) {
+        if (isSqlServer()) {
+            return jdbcTemplate.queryForObject(MERGE_CART_VERSION, Long.class, userId);
+        }
+        if (jdbcTemplate.update(UPDATE_CART_VERSION, userId) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_CART_VERSION, userId);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(UPDATE_CART_VERSION, userId);
+            }
+        }
+        return jdbcTemplate.query(SELECT_CART_VERSION, (rs, rowNum) -> rs.getLong("version"), userId).get(0);
+    }
+
+    private boolean incrementExisting(Integer userId, Integer bookId, Integer quantity, long version) {
+        return jdbcTemplate.update(UPDATE_CART_ITEM, quantity, version, userId, bookId, bookId, quantity) > 0;
+    }
+
+    private CartItem toCartItem(Integer cartItemId, Integer userId, Integer bookId, Integer quantity,
+                                Timestamp addedAt) {
+        return new CartItem(
+                cartItemId,
+                entityManager.getReference(User.class, userId),
+                entityManager.getReference(Book.class, bookId),
+                quantity,
+                addedAt != null ? addedAt.toLocalDateTime() : null
+        );
+    }
+
+    private boolean isSqlServer() {
+        if (sqlServer == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            sqlServer = product != null && product.toLowerCase().contains("sql server");
+        }
+        return sqlServer;
+    }
+}
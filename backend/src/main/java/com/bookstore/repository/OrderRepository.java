@@ -1,10 +1,17 @@
 package com.bookstore.repository;
 
 import com.bookstore.entity.Order;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,6 +26,22 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query("SELECT o FROM Order o WHERE o.user.userId = :userId ORDER BY o.orderDate DESC")
     List<Order> findUserOrders(Integer userId);
     
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC")
     List<Order> findAllOrdersOrderByDateDesc();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderId IN :orderIds")
+    List<Order> findAllByIdForUpdate(@Param("orderIds") Collection<Integer> orderIds);
+    
+    @Query("SELECT o.orderId, o.status FROM Order o WHERE o.orderId IN :orderIds")
+    List<Object[]> findStatusesByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt " +
+           "WHERE o.orderId IN :orderIds AND o.status IN :fromStatuses")
+    int updateStatusForOrders(@Param("orderIds") Collection<Integer> orderIds,
+                              @Param("fromStatuses") Collection<Order.OrderStatus> fromStatuses,
+                              @Param("status") Order.OrderStatus status,
+                              @Param("updatedAt") LocalDateTime updatedAt);
 }
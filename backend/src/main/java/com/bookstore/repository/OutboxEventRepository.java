@@ -0,0 +1,34 @@
+package com.bookstore.repository;
+
+import com.bookstore.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.eventId")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.eventId IN :eventIds")
+    int markPublished(@Param("eventIds") Collection<Long> eventIds, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    @Query("SELECT e.eventId FROM OutboxEvent e WHERE e.publishedAt < :cutoff ORDER BY e.eventId")
+    List<Long> findPublishedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.eventId IN :eventIds")
+    int deleteByIds(@Param("eventIds") Collection<Long> eventIds);
+}
@@ -1,6 +1,7 @@
 package com.bookstore.repository;
 
 import com.bookstore.entity.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,6 +12,7 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
     
+    @EntityGraph(attributePaths = {"user", "book", "book.category"})
     List<Review> findByBookBookIdOrderByCreatedAtDesc(Integer bookId);
     
     List<Review> findByUserUserId(Integer userId);
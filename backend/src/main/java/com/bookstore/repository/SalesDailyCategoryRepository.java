@@ -0,0 +1,69 @@
+package com.bookstore.repository;
+
+import com.bookstore.dto.CategorySalesSummary;
+import com.bookstore.dto.DailySalesSummary;
+import com.bookstore.entity.SalesDailyCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesDailyCategoryRepository extends JpaRepository<SalesDailyCategory, Integer> {
+    
+    // Keyed on the category recorded on the order line, so a reversal undoes exactly what placement added
+    // even if the book has moved to another category since
+    @Modifying
+    @Query(value = "MERGE sales_daily_category WITH (HOLDLOCK) AS t " +
+           "USING (SELECT CAST(o.order_date AS DATE) AS sales_date, oi.category_id, " +
+           "SUM(oi.quantity) AS quantity_sold, SUM(oi.subtotal) AS revenue " +
+           "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id " +
+           "WHERE o.order_id IN (:orderIds) " +
+           "GROUP BY CAST(o.order_date AS DATE), oi.category_id) AS s " +
+           "ON t.sales_date = s.sales_date AND t.category_id = s.category_id " +
+           "WHEN MATCHED THEN UPDATE SET t.quantity_sold = t.quantity_sold + :sign * s.quantity_sold, " +
+           "t.revenue = t.revenue + :sign * s.revenue, t.updated_at = CURRENT_TIMESTAMP " +
+           "WHEN NOT MATCHED THEN INSERT (sales_date, category_id, quantity_sold, revenue, updated_at) " +
+           "VALUES (s.sales_date, s.category_id, :sign * s.quantity_sold, :sign * s.revenue, CURRENT_TIMESTAMP);",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily_category"))
+    int applyOrderDelta(@Param("orderIds") Collection<Integer> orderIds, @Param("sign") int sign);
+    
+    @Modifying
+    @Query("DELETE FROM SalesDailyCategory s WHERE s.salesDate >= :fromDate AND s.salesDate < :toDate")
+    int deleteBySalesDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+    
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_category (sales_date, category_id, quantity_sold, revenue, updated_at) " +
+           "SELECT CAST(o.order_date AS DATE), oi.category_id, SUM(oi.quantity), SUM(oi.subtotal), CURRENT_TIMESTAMP " +
+           "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id " +
+           "WHERE o.order_date >= :fromDate AND o.order_date < :toDate " +
+           "AND o.status <> 'CANCELLED' AND o.payment_status <> 'REFUNDED' " +
+           "GROUP BY CAST(o.order_date AS DATE), oi.category_id",
+           nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_daily_category"))
+    int backfill(@Param("fromDate") LocalDateTime fromDate, @Param("toDate") LocalDateTime toDate);
+    
+    @Query("SELECT new com.bookstore.dto.CategorySalesSummary(s.categoryId, c.categoryName, " +
+           "SUM(s.quantitySold), SUM(s.revenue)) " +
+           "FROM SalesDailyCategory s, Category c WHERE c.categoryId = s.categoryId " +
+           "AND s.salesDate >= :fromDate AND s.salesDate <= :toDate " +
+           "GROUP BY s.categoryId, c.categoryName ORDER BY SUM(s.revenue) DESC")
+    List<CategorySalesSummary> findCategoryTotals(@Param("fromDate") LocalDate fromDate,
+                                                  @Param("toDate") LocalDate toDate);
+    
+    @Query("SELECT new com.bookstore.dto.DailySalesSummary(s.salesDate, SUM(s.quantitySold), SUM(s.revenue)) " +
+           "FROM SalesDailyCategory s WHERE s.salesDate >= :fromDate AND s.salesDate <= :toDate " +
+           "GROUP BY s.salesDate ORDER BY s.salesDate")
+    List<DailySalesSummary> findDailyTotals(@Param("fromDate") LocalDate fromDate,
+                                            @Param("toDate") LocalDate toDate);
+}
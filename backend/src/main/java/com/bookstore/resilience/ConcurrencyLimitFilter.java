@@ -0,0 +1,180 @@
+package com.bookstore.resilience;
+
+import com.bookstore.datasource.WorkloadFilter;
+import com.bookstore.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Sheds requests with 503 and Retry-After once too many are in flight, before security or any handler
+// runs, so an overloaded instance answers at once instead of queueing until clients time out and retry.
+// All lanes share one adaptive limit but may fill only their share of it, so a browse spike is shed
+// while checkout still gets through.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "limiter.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    enum Lane { CHECKOUT, AUTH, CATALOG, OTHER }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${limiter.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${limiter.min-limit:10}")
+    private int minLimit;
+
+    @Value("${limiter.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${limiter.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+
+    @Value("${limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${limiter.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${limiter.lane.checkout.share:1.0}")
+    private double checkoutShare;
+
+    @Value("${limiter.lane.auth.share:0.9}")
+    private double authShare;
+
+    @Value("${limiter.lane.catalog.share:0.7}")
+    private double catalogShare;
+
+    @Value("${limiter.lane.other.share:0.8}")
+    private double otherShare;
+
+    private AdaptiveConcurrencyLimit limit;
+    private final Map<Lane, Double> shares = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> shed = new EnumMap<>(Lane.class);
+
+    @PostConstruct
+    public void init() {
+        limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThresholdMs, backoffRatio);
+        shares.put(Lane.CHECKOUT, checkoutShare);
+        shares.put(Lane.AUTH, authShare);
+        shares.put(Lane.CATALOG, catalogShare);
+        shares.put(Lane.OTHER, otherShare);
+        for (Lane lane : Lane.values()) {
+            shed.put(lane, Counter.builder("bookstore.limiter.shed")
+                    .tag("lane", lane.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("bookstore.limiter.limit", limit, AdaptiveConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("bookstore.limiter.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+    }
+
+    // Monitoring has to keep answering on an overloaded instance
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Lane lane = laneOf(request);
+        if (!limit.tryAcquire(shares.get(lane))) {
+            shed.get(lane).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Server is busy, please retry shortly"));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // A streamed export is still being written, so it keeps its permit until it completes
+                request.getAsyncContext().addListener(new PermitReleasingListener());
+                async = true;
+                return;
+            }
+            // A 503 from further in means the database is already degraded
+            dropped = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } finally {
+            if (!async) {
+                limit.release(start, dropped);
+            }
+        }
+    }
+
+    // Admin order endpoints are not checkout requests (see WorkloadFilter.isCheckout) and land in OTHER
+    static Lane laneOf(HttpServletRequest request) {
+        if (WorkloadFilter.isCheckout(request)) {
+            return Lane.CHECKOUT;
+        }
+        String path = path(request);
+        String method = request.getMethod();
+        if (path.startsWith("/api/auth")) {
+            return Lane.AUTH;
+        }
+        if ("GET".equals(method) && (path.startsWith("/api/books") || path.startsWith("/api/categories")
+                || path.startsWith("/api/reviews"))) {
+            return Lane.CATALOG;
+        }
+        return Lane.OTHER;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Complete follows a timeout or an error too, so the permit is released exactly once. How long the
+    // client took to read the body is not a latency sample.
+    private class PermitReleasingListener implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.releaseWithoutSample();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.bookstore.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.jpa.SpecHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounds how many request threads can be stuck on catalog reads at once and trips a circuit breaker
+// when those reads fail or run past the latency budget. While it is open, reads fail straight away
+// with ServiceDegradedException so callers can serve what they had, and checkout is turned away.
+// Fed by catalog reads only, so with read replicas configured it tracks the replicas. Each read runs
+// in a read-only transaction whose queries time out at the budget, so a stuck query is cancelled
+// instead of holding its permit until the database gives up.
+@Component
+public class DatabaseGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseGuard.class);
+
+    private static final long WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${degraded.read.latency-budget-ms:3000}")
+    private long latencyBudgetMs;
+
+    @Value("${degraded.read.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${degraded.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${degraded.breaker.open-ms:10000}")
+    private long openMs;
+
+    private Semaphore permits;
+    private CircuitBreaker breaker;
+    private TransactionTemplate readTransaction;
+    private final AtomicLong lastWarnNanos = new AtomicLong();
+    private final AtomicInteger suppressedWarnings = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        breaker = new CircuitBreaker(failureThreshold, openMs);
+        Gauge.builder("bookstore.degraded.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T read(Supplier<T> call) {
+        if (!breaker.tryAcquire()) {
+            count("short_circuited");
+            throw new ServiceDegradedException("Catalog is temporarily unavailable");
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(latencyBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // Every permit has been held past the budget, so the reads in front are stuck
+            breaker.onFailure();
+            count("saturated");
+            throw new ServiceDegradedException("Catalog is temporarily unavailable");
+        }
+        long start = System.nanoTime();
+        try {
+            T result = readTransaction.execute(status -> withQueryTimeout(call));
+            long elapsedNanos = System.nanoTime() - start;
+            if (elapsedNanos > TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs)) {
+                breaker.onFailure();
+                count("slow");
+                if (warnNow()) {
+                    logger.warn("Catalog read took {} ms, over the {} ms budget ({} earlier warnings not logged)",
+                            TimeUnit.NANOSECONDS.toMillis(elapsedNanos), latencyBudgetMs,
+                            suppressedWarnings.getAndSet(0));
+                }
+            } else {
+                breaker.onSuccess();
+                count("ok");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (!isDatabaseFailure(e)) {
+                // The database answered; the caller's own check failed
+                breaker.onSuccess();
+                count("ok");
+                throw e;
+            }
+            breaker.onFailure();
+            count("failed");
+            // The client only gets a 503, so this is where the cause is recorded
+            if (warnNow()) {
+                logger.warn("Catalog read failed ({} earlier warnings not logged)", suppressedWarnings.getAndSet(0), e);
+            }
+            throw new ServiceDegradedException("Catalog is temporarily unavailable", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // A query timeout rather than a transaction timeout: Hibernate counts what is left of the latter in
+    // whole seconds rounded down, which would cut a one-second budget to nothing. The session stays open
+    // for the rest of the request, so the previous setting is put back afterwards.
+    private <T> T withQueryTimeout(Supplier<T> call) {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        Object previous = entityManager.getProperties().get(SpecHints.HINT_SPEC_QUERY_TIMEOUT);
+        entityManager.setProperty(SpecHints.HINT_SPEC_QUERY_TIMEOUT, (int) latencyBudgetMs);
+        try {
+            return call.get();
+        } finally {
+            entityManager.setProperty(SpecHints.HINT_SPEC_QUERY_TIMEOUT, previous != null ? previous : 0);
+        }
+    }
+
+    // Writes cannot be answered from a snapshot, so they fail fast instead of waiting on the pool
+    public void checkWritesAllowed() {
+        if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            count("writes_rejected");
+            throw new ServiceDegradedException("Checkout is temporarily unavailable, please try again shortly");
+        }
+    }
+
+    // Tells the client the body is an earlier result, and how old it is
+    public void markStale(long storedAtNanos) {
+        Counter.builder("bookstore.degraded.stale.responses").register(meterRegistry).increment();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null) {
+                long ageSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - storedAtNanos);
+                response.setHeader(HttpHeaders.AGE, String.valueOf(ageSeconds));
+                response.setHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            }
+        }
+    }
+
+    // At most one warning per interval, so an outage logs its cause without a line for every request
+    private boolean warnNow() {
+        long now = System.nanoTime();
+        long last = lastWarnNanos.get();
+        if ((last == 0 || now - last >= WARN_INTERVAL_NANOS) && lastWarnNanos.compareAndSet(last, now)) {
+            return true;
+        }
+        suppressedWarnings.incrementAndGet();
+        return false;
+    }
+
+    private void count(String result) {
+        Counter.builder("bookstore.degraded.reads").tag("result", result).register(meterRegistry).increment();
+    }
+
+    private static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessException || t instanceof TransactionException
+                    || t instanceof PersistenceException || t instanceof SQLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
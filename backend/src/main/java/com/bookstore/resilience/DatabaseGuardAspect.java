@@ -0,0 +1,39 @@
+package com.bookstore.resilience;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+// Inside @SingleFlight, so only the caller that actually runs the read takes a permit, and outside
+// @Transactional, so a caller turned away never opens a transaction or waits on the pool.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DatabaseGuardAspect {
+
+    @Autowired
+    private DatabaseGuard databaseGuard;
+
+    @Around("@annotation(com.bookstore.resilience.ServeStale)")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return databaseGuard.read(() -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        });
+    }
+}
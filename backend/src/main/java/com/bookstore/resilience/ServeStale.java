@@ -0,0 +1,14 @@
+package com.bookstore.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs the annotated read through the DatabaseGuard and, while the database is degraded, answers with
+// the last good result of the same call. Results are shared between requests after their session has
+// closed, so they must be fully loaded by the query itself.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ServeStale {
+}
@@ -0,0 +1,100 @@
+package com.bookstore.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outermost advice on @ServeStale reads, so callers coalesced by @SingleFlight each fall back on
+// their own and each get the staleness headers.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServeStaleAspect {
+
+    @Autowired
+    private DatabaseGuard databaseGuard;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${degraded.stale.max-entries:2000}")
+    private int maxEntries;
+
+    // Least recently used first
+    private final LinkedHashMap<List<Object>, StoredResult> lastGood = new LinkedHashMap<>(256, 0.75f, true);
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("bookstore.degraded.stale.entries", this, aspect -> aspect.size()).register(meterRegistry);
+    }
+
+    @Around("@annotation(com.bookstore.resilience.ServeStale)")
+    public Object serveStale(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        List<Object> key = callKey(joinPoint);
+        try {
+            Object result = joinPoint.proceed();
+            store(key, result);
+            return result;
+        } catch (ServiceDegradedException e) {
+            StoredResult stored = lookup(key);
+            if (stored == null) {
+                throw e;
+            }
+            databaseGuard.markStale(stored.storedAt);
+            return stored.value;
+        }
+    }
+
+    private synchronized void store(List<Object> key, Object value) {
+        lastGood.put(key, new StoredResult(value, System.nanoTime()));
+        if (lastGood.size() > maxEntries) {
+            Map.Entry<List<Object>, StoredResult> eldest = lastGood.entrySet().iterator().next();
+            lastGood.remove(eldest.getKey());
+        }
+    }
+
+    private synchronized StoredResult lookup(List<Object> key) {
+        return lastGood.get(key);
+    }
+
+    private synchronized int size() {
+        return lastGood.size();
+    }
+
+    private static List<Object> callKey(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        List<Object> key = new ArrayList<>();
+        key.add(signature.getDeclaringType().getSimpleName() + "." + signature.getName());
+        key.addAll(Arrays.asList(joinPoint.getArgs()));
+        return key;
+    }
+
+    private static class StoredResult {
+        final Object value;
+        final long storedAt;
+
+        StoredResult(Object value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bookstore.resilience;
+
+import com.bookstore.exception.DomainException;
+
+// The database is too slow or unavailable to answer, and there is no earlier result to fall back to.
+// Thrown for every request while the breaker is open, so it is stackless like the other domain exceptions;
+// the database error it wraps keeps its own trace.
+public class ServiceDegradedException extends DomainException {
+
+    public ServiceDegradedException(String message) {
+        super(message);
+    }
+
+    public ServiceDegradedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bookstore.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+// Runs outside the @Transactional advice, so callers waiting on someone else's query hold no connection.
+// Calls made inside a transaction are never coalesced: their entities would belong to another session.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SingleFlightAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("bookstore.singleflight.in.flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    @Around("@annotation(com.bookstore.resilience.SingleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String method = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        List<Object> key = new ArrayList<>();
+        key.add(method);
+        key.addAll(Arrays.asList(joinPoint.getArgs()));
+
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            callCounter(method, "coalesced").increment();
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+
+        callCounter(method, "executed").increment();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable t) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(t);
+            throw t;
+        }
+        // Removed before completing, so a caller arriving from now on runs a fresh query
+        inFlight.remove(key, call);
+        call.complete(result);
+        return result;
+    }
+
+    private Counter callCounter(String method, String result) {
+        return Counter.builder("bookstore.singleflight.calls")
+                .tag("method", method)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -4,8 +4,11 @@ import com.bookstore.dto.AuthResponse;
 import com.bookstore.dto.LoginRequest;
 import com.bookstore.dto.RegisterRequest;
 import com.bookstore.entity.User;
+import com.bookstore.exception.ConflictException;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.UserRepository;
 import com.bookstore.security.JwtTokenProvider;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed("bookstore.service")
 public class AuthService {
 
     @Autowired
@@ -33,7 +37,7 @@ public class AuthService {
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
+            throw new ConflictException("Email already exists");
         }
 
         User user = new User();
@@ -67,7 +71,7 @@ public class AuthService {
         String token = tokenProvider.generateToken(authentication);
 
         User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
         return new AuthResponse(
                 token,
@@ -0,0 +1,143 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.resilience.DatabaseGuard;
+import com.bookstore.resilience.ServiceDegradedException;
+import com.bookstore.web.ResponseSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The /api/books response, serialized and compressed once per catalog change instead of per request.
+// Title, price or visibility changes rebuild it on the next read. Stock moves with every checkout, so
+// a stock-only change rebuilds it at most once per interval and the stock shown may lag by that much.
+// While the database is degraded the last body is served as stale.
+@Component
+public class BookListSnapshot {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DatabaseGuard databaseGuard;
+
+    @Value("${catalog.snapshot.stock-refresh-interval-ms:1000}")
+    private long stockRefreshIntervalMs;
+
+    @Value("${degraded.read.latency-budget-ms:3000}")
+    private long latencyBudgetMs;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong stockVersion = new AtomicLong();
+
+    private volatile Built current;
+
+    public ResponseSnapshot get() {
+        Built built = current;
+        if (isFresh(built)) {
+            return built.response;
+        }
+        if (!acquireRebuildLock(built)) {
+            // Another request is rebuilding; the previous body is at most one change behind
+            return built.response;
+        }
+        try {
+            built = current;
+            if (isFresh(built)) {
+                return built.response;
+            }
+            // Versions are read before loading, so a change committed meanwhile triggers another rebuild
+            long catalog = catalogVersion.get();
+            long stock = stockVersion.get();
+            ResponseSnapshot response;
+            try {
+                // The guard runs the read in its read-only transaction
+                response = databaseGuard.read(() -> ResponseSnapshot.of(
+                        objectMapper,
+                        ApiResponse.success("Books retrieved successfully", bookRepository.findByIsActiveTrue())));
+            } catch (ServiceDegradedException e) {
+                if (built == null) {
+                    throw e;
+                }
+                databaseGuard.markStale(built.builtAt);
+                return built.response;
+            }
+            current = new Built(response, catalog, stock, System.nanoTime());
+            return response;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Only the very first build makes readers wait, and never for longer than the database would be given
+    private boolean acquireRebuildLock(Built built) {
+        if (built != null) {
+            return rebuildLock.tryLock();
+        }
+        try {
+            if (rebuildLock.tryLock(latencyBudgetMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServiceDegradedException("Catalog is temporarily unavailable");
+    }
+
+    public void catalogChangedAfterCommit() {
+        afterCommit(catalogVersion);
+    }
+
+    public void stockChangedAfterCommit() {
+        afterCommit(stockVersion);
+    }
+
+    private boolean isFresh(Built built) {
+        if (built == null || built.catalogVersion != catalogVersion.get()) {
+            return false;
+        }
+        return built.stockVersion == stockVersion.get()
+                || System.nanoTime() - built.builtAt < TimeUnit.MILLISECONDS.toNanos(stockRefreshIntervalMs);
+    }
+
+    // Bumped only once the write is visible, so a rebuild can never record a version it has not seen
+    private static void afterCommit(AtomicLong version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    private static class Built {
+        final ResponseSnapshot response;
+        final long catalogVersion;
+        final long stockVersion;
+        final long builtAt;
+
+        Built(ResponseSnapshot response, long catalogVersion, long stockVersion, long builtAt) {
+            this.response = response;
+            this.catalogVersion = catalogVersion;
+            this.stockVersion = stockVersion;
+            this.builtAt = builtAt;
+        }
+    }
+}
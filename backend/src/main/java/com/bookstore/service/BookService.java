@@ -1,7 +1,12 @@
 package com.bookstore.service;
 
 import com.bookstore.entity.Book;
+import com.bookstore.exception.InsufficientStockException;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.BookRepository;
+import com.bookstore.resilience.ServeStale;
+import com.bookstore.resilience.SingleFlight;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,35 +14,60 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
+@Timed("bookstore.service")
 public class BookService {
 
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private BookListSnapshot bookListSnapshot;
+
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<Book> getAllActiveBooks() {
         return bookRepository.findByIsActiveTrue();
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public Book getBookById(Integer bookId) {
         return bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+                .orElseThrow(() -> new NotFoundException("Book not found with id: " + bookId));
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<Book> getBooksByCategory(Integer categoryId) {
         return bookRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId);
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<Book> searchBooks(String keyword) {
         return bookRepository.searchBooks(keyword);
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<Book> getNewBooks() {
         return bookRepository.findNewBooks();
     }
 
     @Transactional
     public Book createBook(Book book) {
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        categoryRegistry.refreshAfterCommit();
+        bookListSnapshot.catalogChangedAfterCommit();
+        return savedBook;
     }
 
     @Transactional
@@ -57,7 +87,10 @@ public class BookService {
         book.setLanguage(bookDetails.getLanguage());
         book.setCoverImageUrl(bookDetails.getCoverImageUrl());
         
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        categoryRegistry.refreshAfterCommit();
+        bookListSnapshot.catalogChangedAfterCommit();
+        return savedBook;
     }
 
     @Transactional
@@ -65,6 +98,8 @@ public class BookService {
         Book book = getBookById(bookId);
         book.setIsActive(false);
         bookRepository.save(book);
+        categoryRegistry.refreshAfterCommit();
+        bookListSnapshot.catalogChangedAfterCommit();
     }
 
     @Transactional
@@ -72,8 +107,9 @@ public class BookService {
         Book book = getBookById(bookId);
         book.setStockQuantity(book.getStockQuantity() - quantity);
         if (book.getStockQuantity() < 0) {
-            throw new RuntimeException("Insufficient stock for book: " + book.getTitle());
+            throw new InsufficientStockException("Insufficient stock for book: " + book.getTitle());
         }
         bookRepository.save(book);
+        bookListSnapshot.stockChangedAfterCommit();
     }
 }
@@ -0,0 +1,107 @@
+package com.bookstore.service;
+
+import com.bookstore.datasource.Workload;
+import com.bookstore.datasource.WorkloadClass;
+import com.bookstore.dto.CartExpiryResult;
+import com.bookstore.repository.CartItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Workload(WorkloadClass.ADMIN)
+public class CartExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartExpiryService.class);
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private WriteBehindCartStore cartStore;
+
+    @Value("${cart.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.expiry.ttl-days:30}")
+    private int ttlDays;
+
+    @Value("${cart.expiry.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${cart.expiry.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${cart.expiry.max-runtime-ms:60000}")
+    private long maxRuntimeMs;
+
+    @Scheduled(cron = "${cart.expiry.cron:0 30 3 * * *}")
+    public void scheduledExpiry() {
+        if (!enabled) {
+            return;
+        }
+        CartExpiryResult result = expireIdleCarts();
+        logger.info("Cart expiry purged {} rows from {} carts in {} chunks, {} ms{}",
+                result.getRowsPurged(), result.getCartsPurged(), result.getChunks(), result.getElapsedMillis(),
+                result.getCompleted() ? "" : " (time budget reached)");
+    }
+
+    // Each chunk is its own short transaction, with a pause in between so the sweep never holds locks for long
+    public synchronized CartExpiryResult expireIdleCarts() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ttlDays);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int chunks = 0;
+        int carts = 0;
+        int rows = 0;
+        boolean completed = true;
+        Integer lastUserId = 0;
+        while (true) {
+            List<Integer> userIds = cartItemRepository.findIdleCartUserIds(cutoff, lastUserId, chunkSize);
+            if (userIds.isEmpty()) {
+                break;
+            }
+            // Pending write-behind changes go out first; they touch the cart version, so the purge skips the cart
+            if (cartStore != null) {
+                userIds.forEach(cartStore::flush);
+            }
+            Integer purged = transactionTemplate.execute(status -> cartItemRepository.purgeIdleCarts(userIds, cutoff));
+            if (cartStore != null) {
+                userIds.forEach(cartStore::evictIfClean);
+            }
+            chunks++;
+            carts += userIds.size();
+            rows += purged;
+            lastUserId = userIds.get(userIds.size() - 1);
+
+            if (userIds.size() < chunkSize) {
+                break;
+            }
+            if (System.currentTimeMillis() - startedAt >= maxRuntimeMs) {
+                completed = false;
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completed = false;
+                break;
+            }
+        }
+
+        return new CartExpiryResult(cutoff, chunks, carts, rows, completed, System.currentTimeMillis() - startedAt);
+    }
+}
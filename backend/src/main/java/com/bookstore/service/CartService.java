@@ -1,79 +1,283 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CartChanges;
+import com.bookstore.dto.CartLine;
+import com.bookstore.dto.CartLineChange;
+import com.bookstore.dto.CartOperation;
+import com.bookstore.dto.CartSummary;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.CartItem;
 import com.bookstore.entity.User;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.exception.InsufficientStockException;
+import com.bookstore.exception.NotFoundException;
+import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.CartItemRepository;
-import com.bookstore.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Timed("bookstore.service")
 public class CartService {
 
     @Autowired
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private BookRepository bookRepository;
 
-    @Autowired
-    private BookService bookService;
+    @Autowired(required = false)
+    private WriteBehindCartStore cartStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public List<CartItem> getUserCart(Integer userId) {
+        if (cartStore != null) {
+            return cartStore.getCart(userId);
+        }
         return cartItemRepository.findByUserUserId(userId);
     }
 
-    @Transactional
-    public CartItem addToCart(Integer userId, Integer bookId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Book book = bookService.getBookById(bookId);
+    // Checkout must see every pending cart change, so the write-behind store is flushed first, on the order
+    // transaction's own connection
+    public List<CartItem> getCartForCheckout(Integer userId) {
+        if (cartStore != null) {
+            cartStore.flush(userId);
+        }
+        return cartItemRepository.findByUserUserId(userId);
+    }
 
-        if (book.getStockQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock");
+    public CartSummary getCartSummary(Integer userId) {
+        if (cartStore != null) {
+            cartStore.flush(userId);
+        }
+        List<CartLine> lines = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int itemCount = 0;
+        for (Object[] row : cartItemRepository.findCartSummaryRows(userId)) {
+            lines.add(new CartLine((Integer) row[0], (Integer) row[1], (String) row[2], (String) row[3],
+                    (BigDecimal) row[4], (Integer) row[5], (BigDecimal) row[6]));
+            totalAmount = (BigDecimal) row[7];
+            itemCount = ((Number) row[8]).intValue();
         }
+        return new CartSummary(lines, totalAmount, itemCount);
+    }
 
-        CartItem existingCartItem = cartItemRepository
-                .findByUserUserIdAndBookBookId(userId, bookId)
-                .orElse(null);
+    // Returns null when the client's version is current; a missing or stale version gets the whole cart
+    public CartChanges getCartChanges(Integer userId, Long since) {
+        if (cartStore != null) {
+            cartStore.flush(userId);
+        }
+        // Read the version before the lines so a concurrent change is re-sent rather than missed
+        long[] versions = cartItemRepository.findCartVersion(userId);
+        long version = versions[0];
+        long resetVersion = versions[1];
 
-        if (existingCartItem != null) {
-            existingCartItem.setQuantity(existingCartItem.getQuantity() + quantity);
-            return cartItemRepository.save(existingCartItem);
-        } else {
-            CartItem cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setBook(book);
-            cartItem.setQuantity(quantity);
-            return cartItemRepository.save(cartItem);
+        if (since != null && since == version && version > 0) {
+            return null;
+        }
+        if (since == null || version == 0 || since < resetVersion || since > version) {
+            return new CartChanges(version, true, cartItemRepository.findCartLines(userId), List.of());
         }
+        return new CartChanges(version, false,
+                cartItemRepository.findCartLinesChangedSince(userId, since),
+                cartItemRepository.findRemovedCartItemIdsSince(userId, since));
+    }
+
+    @Transactional
+    public CartItem addToCart(Integer userId, Integer bookId, Integer quantity) {
+        if (cartStore != null) {
+            checkStock(bookId, quantity);
+            return cartStore.add(userId, bookId, quantity);
+        }
+
+        // Stock check and insert-or-increment run as one statement
+        return cartItemRepository.upsertQuantity(userId, bookId, quantity)
+                .orElseThrow(() -> bookRepository.existsById(bookId)
+                        ? new InsufficientStockException("Insufficient stock")
+                        : new NotFoundException("Book not found with id: " + bookId));
     }
 
     @Transactional
     public CartItem updateCartItemQuantity(Integer cartItemId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        if (cartStore != null) {
+            Integer bookId = cartStore.findBookId(cartItemId);
+            if (bookId == null) {
+                throw new NotFoundException("Cart item not found");
+            }
+            checkStock(bookId, quantity);
+            return cartStore.setQuantity(cartItemId, quantity);
+        }
 
-        if (cartItem.getBook().getStockQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock");
+        List<Object[]> rows = cartItemRepository.findLineDetails(cartItemId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Cart item not found");
+        }
+        Object[] row = rows.get(0);
+        Integer userId = (Integer) row[0];
+        Integer bookId = (Integer) row[1];
+        if ((Integer) row[2] < quantity) {
+            throw new InsufficientStockException("Insufficient stock");
         }
 
-        cartItem.setQuantity(quantity);
-        return cartItemRepository.save(cartItem);
+        // Written through the versioned batch path so delta sync sees the change
+        cartItemRepository.applyChanges(List.of(new CartLineChange(userId, bookId, quantity, true)));
+        return new CartItem(cartItemId, entityManager.getReference(User.class, userId),
+                entityManager.getReference(Book.class, bookId), quantity, (LocalDateTime) row[3]);
     }
 
     @Transactional
     public void removeFromCart(Integer cartItemId) {
-        cartItemRepository.deleteById(cartItemId);
+        if (cartStore != null) {
+            cartStore.remove(cartItemId);
+            return;
+        }
+        for (Object[] row : cartItemRepository.findLineDetails(cartItemId)) {
+            cartItemRepository.applyChanges(List.of(new CartLineChange((Integer) row[0], (Integer) row[1], 0, true)));
+        }
+    }
+
+    @Transactional
+    public CartSummary applyBatch(Integer userId, List<CartOperation> operations) {
+        // The cart version row stays locked until commit, so no other write to this cart can land between
+        // reading the lines and writing the quantities computed from them
+        Map<Integer, Long> versions = cartItemRepository.lockCartVersions(List.of(userId));
+        if (cartStore != null) {
+            cartStore.holdUntilCompletion(userId);
+        }
+        Map<Integer, CartLine> currentLines = new HashMap<>();
+        Map<Integer, Integer> bookIdsByCartItemId = new HashMap<>();
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (CartLine line : cartItemRepository.findCartLines(userId)) {
+            currentLines.put(line.getBookId(), line);
+            bookIdsByCartItemId.put(line.getCartItemId(), line.getBookId());
+            quantities.put(line.getBookId(), line.getQuantity());
+        }
+
+        // Replay the operations in memory, keyed by book, so each line is written at most once
+        Set<Integer> touchedBookIds = new LinkedHashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperation operation = operations.get(i);
+            switch (operation.getType().toUpperCase()) {
+                case "ADD": {
+                    if (operation.getBookId() == null || operation.getQuantity() == null || operation.getQuantity() < 1) {
+                        throw new BadRequestException("Operation " + i + ": ADD requires bookId and a quantity of at least 1");
+                    }
+                    quantities.merge(operation.getBookId(), operation.getQuantity(), Integer::sum);
+                    touchedBookIds.add(operation.getBookId());
+                    break;
+                }
+                case "SET_QUANTITY": {
+                    Integer bookId = resolveBookId(operation, bookIdsByCartItemId, i);
+                    if (operation.getQuantity() == null || operation.getQuantity() < 0) {
+                        throw new BadRequestException("Operation " + i + ": SET_QUANTITY requires a quantity of at least 0");
+                    }
+                    if (operation.getQuantity() == 0) {
+                        quantities.remove(bookId);
+                    } else {
+                        quantities.put(bookId, operation.getQuantity());
+                    }
+                    touchedBookIds.add(bookId);
+                    break;
+                }
+                case "REMOVE": {
+                    Integer bookId = resolveBookId(operation, bookIdsByCartItemId, i);
+                    quantities.remove(bookId);
+                    touchedBookIds.add(bookId);
+                    break;
+                }
+                case "CLEAR": {
+                    touchedBookIds.addAll(quantities.keySet());
+                    quantities.clear();
+                    break;
+                }
+                default:
+                    throw new BadRequestException("Operation " + i + ": unknown type " + operation.getType());
+            }
+        }
+
+        List<CartLineChange> changes = new ArrayList<>();
+        Map<Integer, Integer> changedQuantities = new LinkedHashMap<>();
+        for (Integer bookId : touchedBookIds) {
+            Integer quantity = quantities.get(bookId);
+            CartLine currentLine = currentLines.get(bookId);
+            if (quantity == null) {
+                if (currentLine != null) {
+                    changes.add(new CartLineChange(userId, bookId, 0, true));
+                }
+            } else if (currentLine == null || !quantity.equals(currentLine.getQuantity())) {
+                changedQuantities.put(bookId, quantity);
+            }
+        }
+
+        // Check stock for every changed line with one query
+        Map<Integer, Integer> stockByBookId = new HashMap<>();
+        if (!changedQuantities.isEmpty()) {
+            for (Object[] row : bookRepository.findStockByBookIds(changedQuantities.keySet())) {
+                stockByBookId.put((Integer) row[0], (Integer) row[1]);
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> entry : changedQuantities.entrySet()) {
+            Integer bookId = entry.getKey();
+            Integer stock = stockByBookId.get(bookId);
+            if (stock == null) {
+                throw new NotFoundException("Book not found with id: " + bookId);
+            }
+            if (stock < entry.getValue()) {
+                throw new InsufficientStockException("Insufficient stock for book id: " + bookId);
+            }
+            changes.add(new CartLineChange(userId, bookId, entry.getValue(), currentLines.containsKey(bookId)));
+        }
+
+        cartItemRepository.applyChanges(changes, versions);
+        return getCartSummary(userId);
+    }
+
+    private Integer resolveBookId(CartOperation operation, Map<Integer, Integer> bookIdsByCartItemId, int index) {
+        if (operation.getCartItemId() != null) {
+            Integer bookId = bookIdsByCartItemId.get(operation.getCartItemId());
+            if (bookId == null) {
+                throw new NotFoundException("Operation " + index + ": cart item not found");
+            }
+            return bookId;
+        }
+        if (operation.getBookId() == null) {
+            throw new BadRequestException("Operation " + index + ": cartItemId or bookId is required");
+        }
+        return operation.getBookId();
     }
 
     @Transactional
     public void clearCart(Integer userId) {
-        cartItemRepository.deleteByUserId(userId);
+        cartItemRepository.clearLines(userId);
+        if (cartStore != null) {
+            cartStore.invalidate(userId);
+        }
+    }
+
+    private void checkStock(Integer bookId, Integer quantity) {
+        List<Object[]> rows = bookRepository.findStockByBookIds(List.of(bookId));
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Book not found with id: " + bookId);
+        }
+        if ((Integer) rows.get(0)[1] < quantity) {
+            throw new InsufficientStockException("Insufficient stock");
+        }
     }
 }
@@ -0,0 +1,129 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ApiResponse;
+import com.bookstore.dto.CategoryListItem;
+import com.bookstore.entity.Category;
+import com.bookstore.repository.BookRepository;
+import com.bookstore.repository.CategoryRepository;
+import com.bookstore.web.ResponseSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// All categories with their active book counts, held as an immutable snapshot together with the
+// serialized and compressed /api/categories response. Writers build a whole new snapshot and swap it in, so readers never
+// lock and never see a half-built list. The scheduled refresh picks up changes made by other instances.
+@Component
+public class CategoryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    public List<CategoryListItem> getCategories() {
+        return snapshot.categories;
+    }
+
+    public ResponseSnapshot getCategoriesResponse() {
+        return snapshot.response;
+    }
+
+    // Rebuilds once the surrounding transaction commits, so the new snapshot sees its writes
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshQuietly();
+                }
+            });
+        } else {
+            refreshQuietly();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${categories.registry.refresh-interval-ms:300000}",
+            initialDelayString = "${categories.registry.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        refreshQuietly();
+    }
+
+    // Serialised so an older rebuild can never replace a newer one
+    public synchronized void refresh() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<CategoryListItem> categories = transactionTemplate.execute(status -> loadCategories());
+        snapshot = new Snapshot(categories, ResponseSnapshot.of(objectMapper,
+                ApiResponse.success("Categories retrieved successfully", categories)));
+    }
+
+    // The write has already committed, so a failed rebuild only leaves the previous snapshot in place
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh the category registry, keeping the previous snapshot", e);
+        }
+    }
+
+    private List<CategoryListItem> loadCategories() {
+        Map<Integer, Long> activeBookCounts = new HashMap<>();
+        for (Object[] row : bookRepository.countActiveBooksByCategory()) {
+            activeBookCounts.put((Integer) row[0], (Long) row[1]);
+        }
+        List<CategoryListItem> categories = new ArrayList<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.add(new CategoryListItem(
+                    category.getCategoryId(),
+                    category.getCategoryName(),
+                    category.getDescription(),
+                    category.getCreatedAt(),
+                    activeBookCounts.getOrDefault(category.getCategoryId(), 0L)
+            ));
+        }
+        categories.sort(Comparator.comparing(CategoryListItem::getCategoryId));
+        return List.copyOf(categories);
+    }
+
+    private static class Snapshot {
+        final List<CategoryListItem> categories;
+        final ResponseSnapshot response;
+
+        Snapshot(List<CategoryListItem> categories, ResponseSnapshot response) {
+            this.categories = categories;
+            this.response = response;
+        }
+    }
+}
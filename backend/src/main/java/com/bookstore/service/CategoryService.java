@@ -1,28 +1,45 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CategoryListItem;
 import com.bookstore.entity.Category;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.CategoryRepository;
+import com.bookstore.web.ResponseSnapshot;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
+@Timed("bookstore.service")
 public class CategoryService {
 
     @Autowired
     private CategoryRepository categoryRepository;
 
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    public List<CategoryListItem> getAllCategories() {
+        return categoryRegistry.getCategories();
+    }
+
+    // The whole /api/categories response, serialized when the registry was last rebuilt
+    public ResponseSnapshot getAllCategoriesResponse() {
+        return categoryRegistry.getCategoriesResponse();
     }
 
+    @Transactional(readOnly = true)
     public Category getCategoryById(Integer categoryId) {
         return categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Category not found with id: " + categoryId));
+                .orElseThrow(() -> new NotFoundException("Category not found with id: " + categoryId));
     }
 
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        categoryRegistry.refreshAfterCommit();
+        return savedCategory;
     }
 }
@@ -0,0 +1,216 @@
+package com.bookstore.service;
+
+import com.bookstore.datasource.Workload;
+import com.bookstore.datasource.WorkloadClass;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+@Service
+@Workload(WorkloadClass.ADMIN)
+public class OrderExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT o.order_id, o.user_id, o.order_date, o.total_amount, o.status, o.payment_method, " +
+            "o.payment_status, o.shipping_address, o.phone_number, o.notes, " +
+            "oi.order_item_id, oi.book_id, oi.quantity, oi.price_at_purchase, oi.subtotal " +
+            "FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+            "ORDER BY o.order_id, oi.order_item_id";
+
+    private static final String CSV_HEADER =
+            "order_id,user_id,order_date,total_amount,status,payment_method,payment_status," +
+            "shipping_address,phone_number,notes,order_item_id,book_id,quantity,price_at_purchase,subtotal";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate exportJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public OrderExportService(DataSource dataSource,
+                              @Value("${export.fetch-size:1000}") int fetchSize) {
+        // Forward-only, read-only cursor with a fixed fetch size so the driver never buffers the whole result
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void exportNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        NdjsonWriter writer = new NdjsonWriter(generator, out);
+        try {
+            exportJdbcTemplate.query(EXPORT_QUERY, writer);
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+    }
+
+    public void exportCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        int[] rows = {0};
+        try {
+            exportJdbcTemplate.query(EXPORT_QUERY, (RowCallbackHandler) rs -> {
+                try {
+                    writeCsvRow(writer, rs);
+                    if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, ResultSet rs) throws SQLException, IOException {
+        writer.write(String.valueOf(rs.getInt("order_id")));
+        writer.write(',');
+        writer.write(String.valueOf(rs.getInt("user_id")));
+        writer.write(',');
+        writer.write(csv(formatTimestamp(rs.getTimestamp("order_date"))));
+        writer.write(',');
+        writer.write(csv(formatDecimal(rs.getBigDecimal("total_amount"))));
+        writer.write(',');
+        writer.write(csv(rs.getString("status")));
+        writer.write(',');
+        writer.write(csv(rs.getString("payment_method")));
+        writer.write(',');
+        writer.write(csv(rs.getString("payment_status")));
+        writer.write(',');
+        writer.write(csv(rs.getString("shipping_address")));
+        writer.write(',');
+        writer.write(csv(rs.getString("phone_number")));
+        writer.write(',');
+        writer.write(csv(rs.getString("notes")));
+        writer.write(',');
+        writer.write(csv(rs.getString("order_item_id")));
+        writer.write(',');
+        writer.write(csv(rs.getString("book_id")));
+        writer.write(',');
+        writer.write(csv(rs.getString("quantity")));
+        writer.write(',');
+        writer.write(csv(formatDecimal(rs.getBigDecimal("price_at_purchase"))));
+        writer.write(',');
+        writer.write(csv(formatDecimal(rs.getBigDecimal("subtotal"))));
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    private static String formatDecimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    // Rows arrive ordered by order_id, so one order is open at a time and is closed when the id changes
+    private static class NdjsonWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private final OutputStream out;
+        private Integer currentOrderId;
+        private int orders;
+
+        NdjsonWriter(JsonGenerator generator, OutputStream out) {
+            this.generator = generator;
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                int orderId = rs.getInt("order_id");
+                if (currentOrderId == null || currentOrderId != orderId) {
+                    closeOrder();
+                    openOrder(rs, orderId);
+                }
+                int orderItemId = rs.getInt("order_item_id");
+                if (!rs.wasNull()) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("orderItemId", orderItemId);
+                    generator.writeNumberField("bookId", rs.getInt("book_id"));
+                    generator.writeNumberField("quantity", rs.getInt("quantity"));
+                    generator.writeNumberField("priceAtPurchase", rs.getBigDecimal("price_at_purchase"));
+                    generator.writeNumberField("subtotal", rs.getBigDecimal("subtotal"));
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            try {
+                closeOrder();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void openOrder(ResultSet rs, int orderId) throws SQLException, IOException {
+            currentOrderId = orderId;
+            generator.writeStartObject();
+            generator.writeNumberField("orderId", orderId);
+            generator.writeNumberField("userId", rs.getInt("user_id"));
+            generator.writeStringField("orderDate", formatTimestamp(rs.getTimestamp("order_date")));
+            generator.writeNumberField("totalAmount", rs.getBigDecimal("total_amount"));
+            generator.writeStringField("status", rs.getString("status"));
+            generator.writeStringField("paymentMethod", rs.getString("payment_method"));
+            generator.writeStringField("paymentStatus", rs.getString("payment_status"));
+            generator.writeStringField("shippingAddress", rs.getString("shipping_address"));
+            generator.writeStringField("phoneNumber", rs.getString("phone_number"));
+            generator.writeStringField("notes", rs.getString("notes"));
+            generator.writeArrayFieldStart("items");
+        }
+
+        private void closeOrder() throws IOException {
+            if (currentOrderId == null) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++orders % FLUSH_EVERY_ROWS == 0) {
+                generator.flush();
+                out.flush();
+            }
+        }
+    }
+}
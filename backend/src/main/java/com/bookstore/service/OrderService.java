@@ -1,17 +1,32 @@
 package com.bookstore.service;
 
+import com.bookstore.datasource.Workload;
+import com.bookstore.datasource.WorkloadClass;
+import com.bookstore.dto.BulkOrderStatusResult;
 import com.bookstore.entity.*;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.exception.ConflictException;
+import com.bookstore.exception.NotFoundException;
+import com.bookstore.outbox.OutboxService;
+import com.bookstore.repository.BookRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@Timed("bookstore.service")
 public class OrderService {
 
     @Autowired
@@ -26,38 +41,61 @@ public class OrderService {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookListSnapshot bookListSnapshot;
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${orders.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Transactional(readOnly = true)
     public List<Order> getUserOrders(Integer userId) {
         return orderRepository.findByUserUserIdOrderByOrderDateDesc(userId);
     }
 
+    @Transactional(readOnly = true)
     public Order getOrderById(Integer orderId) {
         return orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+                .orElseThrow(() -> new NotFoundException("Order not found with id: " + orderId));
     }
 
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return orderRepository.findAllOrdersOrderByDateDesc();
     }
 
+    public static BigDecimal calculateTotalAmount(List<CartItem> cartItems) {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (CartItem item : cartItems) {
+            BigDecimal itemTotal = item.getBook().getPrice()
+                    .multiply(BigDecimal.valueOf(item.getQuantity()));
+            totalAmount = totalAmount.add(itemTotal);
+        }
+        return totalAmount;
+    }
+
     @Transactional
     public Order createOrder(Integer userId, String shippingAddress, String phoneNumber, 
                             String paymentMethod, String notes) {
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        List<CartItem> cartItems = cartService.getUserCart(userId);
+        List<CartItem> cartItems = cartService.getCartForCheckout(userId);
         
         if (cartItems.isEmpty()) {
-            throw new RuntimeException("Cart is empty");
+            throw new BadRequestException("Cart is empty");
         }
 
-        // Calculate total amount
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        for (CartItem item : cartItems) {
-            BigDecimal itemTotal = item.getBook().getPrice()
-                    .multiply(BigDecimal.valueOf(item.getQuantity()));
-            totalAmount = totalAmount.add(itemTotal);
-        }
+        BigDecimal totalAmount = calculateTotalAmount(cartItems);
 
         // Create order
         Order order = new Order();
@@ -78,6 +116,7 @@ public class OrderService {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(savedOrder);
             orderItem.setBook(cartItem.getBook());
+            orderItem.setCategoryId(cartItem.getBook().getCategory().getCategoryId());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setPriceAtPurchase(cartItem.getBook().getPrice());
             orderItem.setSubtotal(cartItem.getBook().getPrice()
@@ -92,39 +131,174 @@ public class OrderService {
         // Clear cart
         cartService.clearCart(userId);
 
-        return orderRepository.save(savedOrder);
+        Order placedOrder = orderRepository.saveAndFlush(savedOrder);
+
+        // Roll the new order lines into the daily sales counters
+        salesAnalyticsService.recordOrdersPlaced(List.of(placedOrder.getOrderId()));
+        outboxService.recordOrderCreated(placedOrder);
+
+        return placedOrder;
     }
 
+    // Goes through the guarded bulk path, so illegal transitions are rejected and a cancellation
+    // restores stock and reverses the sales rollups
     @Transactional
     public Order updateOrderStatus(Integer orderId, String status) {
-        Order order = getOrderById(orderId);
-        order.setStatus(Order.OrderStatus.valueOf(status.toUpperCase()));
-        return orderRepository.save(order);
+        throwIfFailed(bulkUpdateOrderStatus(List.of(orderId), status).get(0));
+        return getOrderById(orderId);
+    }
+
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional
+    public List<BulkOrderStatusResult> bulkUpdateOrderStatus(List<Integer> orderIds, String status) {
+        Order.OrderStatus targetStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        if (targetStatus == Order.OrderStatus.CANCELLED) {
+            return cancelOrders(orderIds);
+        }
+
+        List<Order.OrderStatus> fromStatuses = targetStatus.allowedSources();
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<BulkOrderStatusResult> results = new ArrayList<>(distinctIds.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int start = 0; start < distinctIds.size(); start += bulkChunkSize) {
+            List<Integer> chunk = distinctIds.subList(start, Math.min(start + bulkChunkSize, distinctIds.size()));
+            Map<Integer, Order.OrderStatus> currentStatuses = findStatuses(chunk);
+
+            List<Integer> eligibleIds = new ArrayList<>();
+            for (Integer orderId : chunk) {
+                Order.OrderStatus currentStatus = currentStatuses.get(orderId);
+                if (currentStatus != null && currentStatus.canTransitionTo(targetStatus)) {
+                    eligibleIds.add(orderId);
+                }
+            }
+
+            // One set-based UPDATE per chunk, guarded by the allowed source statuses
+            int updated = eligibleIds.isEmpty() ? 0
+                    : orderRepository.updateStatusForOrders(eligibleIds, fromStatuses, targetStatus, now);
+
+            // Rows changed concurrently between the read and the update are reported from their fresh status
+            Map<Integer, Order.OrderStatus> finalStatuses = updated < eligibleIds.size()
+                    ? findStatuses(eligibleIds) : null;
+
+            for (Integer orderId : chunk) {
+                Order.OrderStatus currentStatus = currentStatuses.get(orderId);
+                String previousStatus = currentStatus != null ? currentStatus.name() : null;
+                if (currentStatus == null) {
+                    results.add(new BulkOrderStatusResult(orderId, false, null, "Order not found"));
+                } else if (!currentStatus.canTransitionTo(targetStatus)) {
+                    results.add(new BulkOrderStatusResult(orderId, false, previousStatus,
+                            "Cannot change status from " + currentStatus + " to " + targetStatus));
+                } else if (finalStatuses != null && finalStatuses.get(orderId) != targetStatus) {
+                    results.add(new BulkOrderStatusResult(orderId, false, previousStatus,
+                            "Order status changed concurrently"));
+                } else {
+                    results.add(new BulkOrderStatusResult(orderId, true, previousStatus, "Order status updated"));
+                }
+            }
+        }
+
+        outboxService.recordStatusChanges(OutboxService.ORDER_STATUS_CHANGED, results, targetStatus.name());
+        return results;
+    }
+
+    private Map<Integer, Order.OrderStatus> findStatuses(List<Integer> orderIds) {
+        Map<Integer, Order.OrderStatus> statuses = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusesByOrderIds(orderIds)) {
+            statuses.put((Integer) row[0], (Order.OrderStatus) row[1]);
+        }
+        return statuses;
     }
 
     @Transactional
     public Order updatePaymentStatus(Integer orderId, String paymentStatus) {
         Order order = getOrderById(orderId);
-        order.setPaymentStatus(Order.PaymentStatus.valueOf(paymentStatus.toUpperCase()));
-        return orderRepository.save(order);
+        Order.PaymentStatus previousStatus = order.getPaymentStatus();
+        Order.PaymentStatus newStatus = Order.PaymentStatus.valueOf(paymentStatus.toUpperCase());
+        order.setPaymentStatus(newStatus);
+        // Flushed first so the order row is locked before the event gets its event_id
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        outboxService.recordPaymentStatusChanged(orderId, previousStatus.name(), newStatus.name());
+
+        // Refunds take the order out of the sales counters; cancelled orders were already removed
+        if (order.getStatus() != Order.OrderStatus.CANCELLED) {
+            if (previousStatus != Order.PaymentStatus.REFUNDED && newStatus == Order.PaymentStatus.REFUNDED) {
+                salesAnalyticsService.recordOrdersReversed(List.of(orderId));
+            } else if (previousStatus == Order.PaymentStatus.REFUNDED && newStatus != Order.PaymentStatus.REFUNDED) {
+                salesAnalyticsService.recordOrdersPlaced(List.of(orderId));
+            }
+        }
+
+        return savedOrder;
     }
 
     @Transactional
     public void cancelOrder(Integer orderId) {
-        Order order = getOrderById(orderId);
-        
-        if (order.getStatus() != Order.OrderStatus.PENDING && 
-            order.getStatus() != Order.OrderStatus.CONFIRMED) {
-            throw new RuntimeException("Cannot cancel order in current status");
+        throwIfFailed(cancelOrders(List.of(orderId)).get(0));
+    }
+
+    private static void throwIfFailed(BulkOrderStatusResult result) {
+        if (!result.getSuccess()) {
+            if (result.getPreviousStatus() == null) {
+                throw new NotFoundException(result.getMessage());
+            }
+            throw new ConflictException(result.getMessage());
         }
+    }
 
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        orderRepository.save(order);
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional
+    public List<BulkOrderStatusResult> cancelOrders(List<Integer> orderIds) {
+        List<Order.OrderStatus> cancellableStatuses = Order.OrderStatus.CANCELLED.allowedSources();
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<BulkOrderStatusResult> results = new ArrayList<>(distinctIds.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int start = 0; start < distinctIds.size(); start += bulkChunkSize) {
+            List<Integer> chunk = distinctIds.subList(start, Math.min(start + bulkChunkSize, distinctIds.size()));
+
+            // Lock the orders so a concurrent cancellation cannot restore the same stock twice
+            Map<Integer, Order.OrderStatus> currentStatuses = new HashMap<>();
+            List<Integer> refundedIds = new ArrayList<>();
+            for (Order order : orderRepository.findAllByIdForUpdate(chunk)) {
+                currentStatuses.put(order.getOrderId(), order.getStatus());
+                if (order.getPaymentStatus() == Order.PaymentStatus.REFUNDED) {
+                    refundedIds.add(order.getOrderId());
+                }
+            }
 
-        // Restore stock
-        for (OrderItem item : order.getOrderItems()) {
-            Book book = item.getBook();
-            book.setStockQuantity(book.getStockQuantity() + item.getQuantity());
+            List<Integer> cancellableIds = new ArrayList<>();
+            for (Integer orderId : chunk) {
+                Order.OrderStatus currentStatus = currentStatuses.get(orderId);
+                if (currentStatus == null) {
+                    results.add(new BulkOrderStatusResult(orderId, false, null,
+                            "Order not found with id: " + orderId));
+                } else if (!cancellableStatuses.contains(currentStatus)) {
+                    results.add(new BulkOrderStatusResult(orderId, false, currentStatus.name(),
+                            "Cannot cancel order in current status"));
+                } else {
+                    cancellableIds.add(orderId);
+                    results.add(new BulkOrderStatusResult(orderId, true, currentStatus.name(),
+                            "Order cancelled"));
+                }
+            }
+
+            if (!cancellableIds.isEmpty()) {
+                // Refunded orders were already taken out of the sales counters
+                List<Integer> reversedIds = new ArrayList<>(cancellableIds);
+                reversedIds.removeAll(refundedIds);
+                salesAnalyticsService.recordOrdersReversed(reversedIds);
+
+                orderRepository.updateStatusForOrders(cancellableIds, cancellableStatuses,
+                        Order.OrderStatus.CANCELLED, now);
+                // Restore stock with one relative UPDATE over all lines of the cancelled orders
+                bookRepository.restoreStockForOrders(cancellableIds);
+                bookListSnapshot.stockChangedAfterCommit();
+            }
         }
+
+        outboxService.recordStatusChanges(OutboxService.ORDER_CANCELLED, results,
+                Order.OrderStatus.CANCELLED.name());
+        return results;
     }
 }
@@ -3,8 +3,13 @@ package com.bookstore.service;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.Review;
 import com.bookstore.entity.User;
+import com.bookstore.exception.ConflictException;
+import com.bookstore.exception.NotFoundException;
 import com.bookstore.repository.ReviewRepository;
 import com.bookstore.repository.UserRepository;
+import com.bookstore.resilience.ServeStale;
+import com.bookstore.resilience.SingleFlight;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
+@Timed("bookstore.service")
 public class ReviewService {
 
     @Autowired
@@ -23,15 +29,24 @@ public class ReviewService {
     @Autowired
     private BookService bookService;
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public List<Review> getBookReviews(Integer bookId) {
         return reviewRepository.findByBookBookIdOrderByCreatedAtDesc(bookId);
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public Double getAverageRating(Integer bookId) {
         Double avg = reviewRepository.getAverageRatingByBookId(bookId);
         return avg != null ? avg : 0.0;
     }
 
+    @ServeStale
+    @SingleFlight
+    @Transactional(readOnly = true)
     public Long getReviewCount(Integer bookId) {
         return reviewRepository.getReviewCountByBookId(bookId);
     }
@@ -39,11 +54,11 @@ public class ReviewService {
     @Transactional
     public Review createReview(Integer userId, Integer bookId, Integer rating, String comment) {
         if (reviewRepository.existsByUserUserIdAndBookBookId(userId, bookId)) {
-            throw new RuntimeException("You have already reviewed this book");
+            throw new ConflictException("You have already reviewed this book");
         }
 
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
         
         Book book = bookService.getBookById(bookId);
 
@@ -59,7 +74,7 @@ public class ReviewService {
     @Transactional
     public Review updateReview(Integer reviewId, Integer rating, String comment) {
         Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found"));
+                .orElseThrow(() -> new NotFoundException("Review not found"));
 
         review.setRating(rating);
         review.setComment(comment);
@@ -0,0 +1,174 @@
+package com.bookstore.service;
+
+import com.bookstore.datasource.Workload;
+import com.bookstore.datasource.WorkloadClass;
+import com.bookstore.datasource.WorkloadContext;
+import com.bookstore.dto.BookSalesSummary;
+import com.bookstore.dto.CategorySalesSummary;
+import com.bookstore.dto.DailySalesSummary;
+import com.bookstore.dto.SalesBackfillResult;
+import com.bookstore.exception.BadRequestException;
+import com.bookstore.repository.SalesDailyBookRepository;
+import com.bookstore.repository.SalesDailyCategoryRepository;
+import com.bookstore.resilience.ServiceDegradedException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Timed("bookstore.service")
+public class SalesAnalyticsService {
+
+    @Autowired
+    private SalesDailyBookRepository salesDailyBookRepository;
+
+    @Autowired
+    private SalesDailyCategoryRepository salesDailyCategoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.backfill.chunk-days:7}")
+    private int backfillChunkDays;
+
+    @Value("${analytics.backfill.parallelism:4}")
+    private int backfillParallelism;
+
+    // Shared by all backfills, so running several at once still uses at most backfillParallelism connections
+    private ExecutorService backfillExecutor;
+
+    @PostConstruct
+    public void startBackfillExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        backfillExecutor = Executors.newFixedThreadPool(backfillParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "sales-backfill-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stopBackfillExecutor() {
+        backfillExecutor.shutdownNow();
+    }
+
+    // Called inside the order transaction, after the order lines have been flushed
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrdersPlaced(Collection<Integer> orderIds) {
+        applyDelta(orderIds, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrdersReversed(Collection<Integer> orderIds) {
+        applyDelta(orderIds, -1);
+    }
+
+    private void applyDelta(Collection<Integer> orderIds, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        salesDailyBookRepository.applyOrderDelta(orderIds, sign);
+        salesDailyCategoryRepository.applyOrderDelta(orderIds, sign);
+    }
+
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional(readOnly = true)
+    public List<BookSalesSummary> getTopBooks(LocalDate fromDate, LocalDate toDate, int limit) {
+        return salesDailyBookRepository.findTopBooks(fromDate, toDate, PageRequest.of(0, limit));
+    }
+
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional(readOnly = true)
+    public List<CategorySalesSummary> getCategoryTotals(LocalDate fromDate, LocalDate toDate) {
+        return salesDailyCategoryRepository.findCategoryTotals(fromDate, toDate);
+    }
+
+    @Workload(WorkloadClass.ADMIN)
+    @Transactional(readOnly = true)
+    public List<DailySalesSummary> getDailyTotals(LocalDate fromDate, LocalDate toDate) {
+        return salesDailyCategoryRepository.findDailyTotals(fromDate, toDate);
+    }
+
+    @Workload(WorkloadClass.ADMIN)
+    public SalesBackfillResult backfill(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            throw new BadRequestException("Backfill end date must not be before start date");
+        }
+
+        long startedAt = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Future<int[]>> futures = new ArrayList<>();
+
+        try {
+            // Each chunk of days is rebuilt in its own transaction so chunks can run side by side
+            for (LocalDate chunkStart = fromDate; !chunkStart.isAfter(toDate);
+                 chunkStart = chunkStart.plusDays(backfillChunkDays)) {
+                LocalDate start = chunkStart;
+                LocalDate end = min(chunkStart.plusDays(backfillChunkDays), toDate.plusDays(1));
+                futures.add(backfillExecutor.submit(() -> WorkloadContext.call(WorkloadClass.ADMIN,
+                        () -> transactionTemplate.execute(status -> {
+                            salesDailyBookRepository.deleteBySalesDateRange(start, end);
+                            salesDailyCategoryRepository.deleteBySalesDateRange(start, end);
+                            int bookRows = salesDailyBookRepository.backfill(start.atStartOfDay(), end.atStartOfDay());
+                            int categoryRows = salesDailyCategoryRepository.backfill(
+                                    start.atStartOfDay(), end.atStartOfDay());
+                            return new int[]{bookRows, categoryRows};
+                        }))));
+            }
+
+            int bookRows = 0;
+            int categoryRows = 0;
+            for (Future<int[]> future : futures) {
+                int[] rows = future.get();
+                bookRows += rows[0];
+                categoryRows += rows[1];
+            }
+
+            return new SalesBackfillResult(fromDate, toDate, futures.size(), bookRows, categoryRows,
+                    System.currentTimeMillis() - startedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(futures);
+            throw new ServiceDegradedException("Backfill interrupted", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            // The chunk's own exception, so it is reported as if the backfill had run on this thread
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Backfill failed", e.getCause());
+        }
+    }
+
+    // Chunks already committed stay; the rest of the range keeps its old rows until the backfill is rerun
+    private static void cancel(List<Future<int[]>> futures) {
+        for (Future<int[]> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
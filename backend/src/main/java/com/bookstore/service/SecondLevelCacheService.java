@@ -0,0 +1,56 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Hit/miss counters need hibernate.generate_statistics=true; they are also exported as
+// hibernate.second.level.cache.* and hibernate.cache.query.* metrics
+@Service
+public class SecondLevelCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<CacheRegionStats> getRegionStats() {
+        Statistics statistics = sessionFactory().getStatistics();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        List<CacheRegionStats> regions = new ArrayList<>();
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            long entries = region.getElementCountInMemory();
+            regions.add(new CacheRegionStats(
+                    name,
+                    hits,
+                    misses,
+                    region.getPutCount(),
+                    hits + misses > 0 ? (double) hits / (hits + misses) : null,
+                    entries == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : entries
+            ));
+        }
+        return regions;
+    }
+
+    // For rows changed outside Hibernate, e.g. by a manual SQL fix; Hibernate's own writes keep the regions current
+    public void evictAll() {
+        sessionFactory().getCache().evictAllRegions();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,524 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.CartLineChange;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.CartItem;
+import com.bookstore.entity.User;
+import com.bookstore.exception.InsufficientStockException;
+import com.bookstore.exception.NotFoundException;
+import com.bookstore.repository.CartItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Keeps active carts in memory and writes quantity changes and removals back in coalesced batches.
+// New lines are still inserted synchronously so clients always get a real cart_item_id.
+// Assumes a single API instance owns a user's cart while it is cached.
+@Component
+@ConditionalOnProperty(name = "cart.store.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.store.max-users:10000}")
+    private int maxUsers;
+
+    private final ConcurrentHashMap<Integer, CartEntry> carts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> userIdsByCartItemId = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyUserIds = ConcurrentHashMap.newKeySet();
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = Counter.builder("bookstore.cart.store.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("bookstore.cart.store.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("bookstore.cart.store.carts", carts, Map::size).register(meterRegistry);
+        Gauge.builder("bookstore.cart.store.dirty.carts", dirtyUserIds, Set::size).register(meterRegistry);
+    }
+
+    public List<CartItem> getCart(Integer userId) {
+        return withCart(userId, entry -> {
+            List<CartItem> items = new ArrayList<>();
+            for (StoredLine line : entry.lines.values()) {
+                if (line.quantity > 0) {
+                    items.add(toCartItem(userId, line));
+                }
+            }
+            return items;
+        });
+    }
+
+    public CartItem add(Integer userId, Integer bookId, Integer quantity) {
+        CartItem cached = withCart(userId, entry -> {
+            StoredLine line = entry.lines.get(bookId);
+            if (line == null) {
+                return null;
+            }
+            line.quantity += quantity;
+            markDirty(userId, line);
+            return toCartItem(userId, line);
+        });
+        if (cached != null) {
+            return cached;
+        }
+
+        // The insert needs the cart version row. Like a flush, it locks the row before the entry lock; taking
+        // them the other way round could deadlock with a flush, and the database cannot see the entry lock.
+        cartItemRepository.lockCartVersions(List.of(userId));
+        return withCart(userId, entry -> {
+            StoredLine line = entry.lines.get(bookId);
+            if (line != null) {
+                // Another add of this book inserted it meanwhile
+                line.quantity += quantity;
+                markDirty(userId, line);
+                return toCartItem(userId, line);
+            }
+            CartItem inserted = cartItemRepository.upsertQuantity(userId, bookId, quantity)
+                    .orElseThrow(() -> new InsufficientStockException("Insufficient stock"));
+            line = new StoredLine(inserted.getCartItemId(), bookId, inserted.getQuantity(), inserted.getAddedAt());
+            entry.lines.put(bookId, line);
+            userIdsByCartItemId.put(line.cartItemId, userId);
+            return inserted;
+        });
+    }
+
+    public Integer findBookId(Integer cartItemId) {
+        Integer userId = resolveUserId(cartItemId);
+        if (userId == null) {
+            return null;
+        }
+        return withCart(userId, entry -> {
+            StoredLine line = findLine(entry, cartItemId);
+            return line != null ? line.bookId : null;
+        });
+    }
+
+    public CartItem setQuantity(Integer cartItemId, Integer quantity) {
+        Integer userId = resolveUserId(cartItemId);
+        if (userId == null) {
+            throw new NotFoundException("Cart item not found");
+        }
+        return withCart(userId, entry -> {
+            StoredLine line = findLine(entry, cartItemId);
+            if (line == null) {
+                throw new NotFoundException("Cart item not found");
+            }
+            line.quantity = quantity;
+            markDirty(userId, line);
+            return toCartItem(userId, line);
+        });
+    }
+
+    public void remove(Integer cartItemId) {
+        Integer userId = resolveUserId(cartItemId);
+        if (userId == null) {
+            return;
+        }
+        withCart(userId, entry -> {
+            StoredLine line = findLine(entry, cartItemId);
+            if (line != null) {
+                line.quantity = 0;
+                markDirty(userId, line);
+            }
+            return null;
+        });
+    }
+
+    // Drops the cached cart now and again when the surrounding transaction ends
+    public void invalidate(Integer userId) {
+        evict(userId, true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId, true);
+                }
+            });
+        }
+    }
+
+    // For a caller that writes the cart's rows itself and has already locked the cart version row: cached
+    // changes are written out first, and the cart stays locked until the caller's transaction completes and
+    // is then dropped, so no cached change can be made from lines the caller is about to replace
+    public void holdUntilCompletion(Integer userId) {
+        CartEntry entry;
+        while (true) {
+            CartEntry placeholder = new CartEntry();
+            placeholder.lock.lock();
+            entry = carts.putIfAbsent(userId, placeholder);
+            if (entry == null) {
+                entry = placeholder;
+                break;
+            }
+            placeholder.lock.unlock();
+            entry.lock.lock();
+            if (!entry.evicted) {
+                break;
+            }
+            entry.lock.unlock();
+        }
+        CartEntry held = entry;
+        try {
+            // Checked on the entry rather than through flush: a scheduled flush may have taken the user off the
+            // dirty set and be waiting for the version row the caller holds
+            if (held.pendingWrites > 0 || held.lines.values().stream().anyMatch(line -> line.dirty)) {
+                write(List.of(userId));
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    discard(userId, held);
+                }
+            });
+        } catch (RuntimeException e) {
+            discard(userId, held);
+            throw e;
+        }
+    }
+
+    // Drops a cached cart unless it has changes that are not written yet
+    public void evictIfClean(Integer userId) {
+        evict(userId, false);
+    }
+
+    // Joins the caller's transaction, so a checkout flushes on the connection it already holds. A write still
+    // in flight from another flush is waited for, so what the caller reads next includes it.
+    public void flush(Integer userId) {
+        CartEntry entry = carts.get(userId);
+        boolean inFlight = entry != null && entry.pendingWrites > 0;
+        if (dirtyUserIds.remove(userId) || inFlight) {
+            write(List.of(userId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushAll() {
+        List<Integer> userIds = new ArrayList<>(dirtyUserIds);
+        dirtyUserIds.removeAll(userIds);
+        if (!userIds.isEmpty()) {
+            write(userIds);
+        }
+        if (carts.size() >= maxUsers) {
+            evictIdle();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    private <T> T withCart(Integer userId, Function<CartEntry, T> action) {
+        while (true) {
+            CartEntry entry = carts.get(userId);
+            if (entry != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                // Only clean carts can go here; dirty ones wait for the scheduled flush
+                if (carts.size() >= maxUsers) {
+                    evictIdle();
+                }
+                // Published locked and filled afterwards, so a caller holding the cart for its transaction
+                // either waits for the read or is waited for; a read from before its write never gets cached
+                CartEntry loaded = new CartEntry();
+                loaded.lock.lock();
+                entry = carts.putIfAbsent(userId, loaded);
+                if (entry == null) {
+                    entry = loaded;
+                    try {
+                        load(userId, loaded);
+                    } catch (RuntimeException e) {
+                        drop(userId, loaded);
+                        throw e;
+                    } finally {
+                        loaded.lock.unlock();
+                    }
+                } else {
+                    loaded.lock.unlock();
+                }
+            }
+            entry.lock.lock();
+            try {
+                if (entry.evicted) {
+                    continue;
+                }
+                entry.lastAccess = System.nanoTime();
+                return action.apply(entry);
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    private void load(Integer userId, CartEntry entry) {
+        for (Object[] row : cartItemRepository.findLineStates(userId)) {
+            StoredLine line = new StoredLine((Integer) row[0], (Integer) row[1], (Integer) row[2],
+                    (LocalDateTime) row[3]);
+            entry.lines.put(line.bookId, line);
+            userIdsByCartItemId.put(line.cartItemId, userId);
+        }
+    }
+
+    private Integer resolveUserId(Integer cartItemId) {
+        Integer userId = userIdsByCartItemId.get(cartItemId);
+        if (userId == null) {
+            userId = cartItemRepository.findUserIdByCartItemId(cartItemId).orElse(null);
+        }
+        return userId;
+    }
+
+    private StoredLine findLine(CartEntry entry, Integer cartItemId) {
+        for (StoredLine line : entry.lines.values()) {
+            if (line.cartItemId.equals(cartItemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private void markDirty(Integer userId, StoredLine line) {
+        line.dirty = true;
+        dirtyUserIds.add(userId);
+    }
+
+    private void write(List<Integer> userIds) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            writeInTransaction(userIds);
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> writeInTransaction(userIds));
+        } catch (RuntimeException e) {
+            logger.warn("Could not write back the carts of {} users, retrying on the next flush", userIds.size(), e);
+        }
+    }
+
+    // The cart version rows are locked before the snapshot is taken, so writers of the same cart are ordered
+    // by the database: a later snapshot is only written once the earlier one has committed. No lock of our own
+    // is held while waiting for a connection or a row.
+    private void writeInTransaction(List<Integer> userIds) {
+        Map<Integer, Long> versions = cartItemRepository.lockCartVersions(userIds);
+        PendingWrite pending = new PendingWrite();
+        for (Integer userId : userIds) {
+            CartEntry entry = carts.get(userId);
+            if (entry == null) {
+                continue;
+            }
+            entry.lock.lock();
+            try {
+                Map<StoredLine, CartLineChange> lines = new LinkedHashMap<>();
+                for (StoredLine line : entry.lines.values()) {
+                    if (line.dirty) {
+                        line.dirty = false;
+                        CartLineChange change = new CartLineChange(userId, line.bookId, line.quantity, line.persisted);
+                        // Updated now so a line changed again during the write goes out as the right statement
+                        line.persisted = line.quantity > 0;
+                        lines.put(line, change);
+                        pending.changes.add(change);
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    entry.pendingWrites++;
+                    pending.entries.put(userId, entry);
+                    pending.lines.put(userId, lines);
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+        if (pending.changes.isEmpty()) {
+            return;
+        }
+        // Registered first, so a failed write or a rolled back caller marks the lines dirty again
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        cartItemRepository.applyChanges(pending.changes, versions);
+        pending.insertedRows = findInsertedRows(pending.changes);
+    }
+
+    // Re-inserted lines have new cart_item_ids, read back in the writing transaction
+    private Map<Integer, Map<Integer, Object[]>> findInsertedRows(List<CartLineChange> changes) {
+        Map<Integer, Map<Integer, Object[]>> rows = new HashMap<>();
+        for (CartLineChange change : changes) {
+            if (change.getQuantity() > 0 && !change.getPersisted() && !rows.containsKey(change.getUserId())) {
+                Map<Integer, Object[]> rowsByBookId = new HashMap<>();
+                for (Object[] row : cartItemRepository.findLineStates(change.getUserId())) {
+                    rowsByBookId.put((Integer) row[1], row);
+                }
+                rows.put(change.getUserId(), rowsByBookId);
+            }
+        }
+        return rows;
+    }
+
+    // Carts with unflushed or in-flight changes are kept
+    private void evictIdle() {
+        int target = Math.max(1, maxUsers - maxUsers / 10);
+        List<Map.Entry<Integer, CartEntry>> entries = new ArrayList<>(carts.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (Map.Entry<Integer, CartEntry> e : entries) {
+            if (carts.size() <= target) {
+                break;
+            }
+            evict(e.getKey(), false);
+        }
+    }
+
+    private void evict(Integer userId, boolean discardChanges) {
+        CartEntry entry = carts.get(userId);
+        if (entry == null) {
+            return;
+        }
+        entry.lock.lock();
+        try {
+            if (!discardChanges && (entry.pendingWrites > 0
+                    || entry.lines.values().stream().anyMatch(line -> line.dirty))) {
+                return;
+            }
+            drop(userId, entry);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    // Releases the lock taken by holdUntilCompletion
+    private void discard(Integer userId, CartEntry entry) {
+        try {
+            drop(userId, entry);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private void drop(Integer userId, CartEntry entry) {
+        entry.evicted = true;
+        carts.remove(userId, entry);
+        for (StoredLine line : entry.lines.values()) {
+            userIdsByCartItemId.remove(line.cartItemId);
+        }
+    }
+
+    private CartItem toCartItem(Integer userId, StoredLine line) {
+        return new CartItem(
+                line.cartItemId,
+                entityManager.getReference(User.class, userId),
+                entityManager.getReference(Book.class, line.bookId),
+                line.quantity,
+                line.addedAt
+        );
+    }
+
+    private static class CartEntry {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Integer, StoredLine> lines = new LinkedHashMap<>();
+        volatile long lastAccess = System.nanoTime();
+        boolean evicted;
+        // Written under the lock; read without it by flush
+        volatile int pendingWrites;
+    }
+
+    // One transaction's snapshot of dirty lines, settled once the transaction has completed
+    private class PendingWrite implements TransactionSynchronization {
+        final List<CartLineChange> changes = new ArrayList<>();
+        final Map<Integer, CartEntry> entries = new LinkedHashMap<>();
+        final Map<Integer, Map<StoredLine, CartLineChange>> lines = new LinkedHashMap<>();
+        Map<Integer, Map<Integer, Object[]>> insertedRows = Map.of();
+
+        @Override
+        public void afterCompletion(int status) {
+            boolean committed = status == STATUS_COMMITTED;
+            for (Map.Entry<Integer, CartEntry> flushed : entries.entrySet()) {
+                Integer userId = flushed.getKey();
+                CartEntry entry = flushed.getValue();
+                entry.lock.lock();
+                try {
+                    entry.pendingWrites--;
+                    for (Map.Entry<StoredLine, CartLineChange> flushedLine : lines.get(userId).entrySet()) {
+                        settle(userId, entry, flushedLine.getKey(), flushedLine.getValue(), committed);
+                    }
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+        }
+
+        private void settle(Integer userId, CartEntry entry, StoredLine line, CartLineChange change,
+                            boolean committed) {
+            if (!committed) {
+                line.persisted = change.getPersisted();
+                markDirty(userId, line);
+                return;
+            }
+            Object[] row = insertedRows.getOrDefault(userId, Map.of()).get(line.bookId);
+            if (row != null && !change.getPersisted()) {
+                userIdsByCartItemId.remove(line.cartItemId);
+                line.cartItemId = (Integer) row[0];
+                line.addedAt = (LocalDateTime) row[3];
+                userIdsByCartItemId.put(line.cartItemId, userId);
+            }
+            if (!line.dirty && line.quantity == 0) {
+                entry.lines.remove(line.bookId);
+                userIdsByCartItemId.remove(line.cartItemId);
+            }
+        }
+    }
+
+    private static class StoredLine {
+        Integer cartItemId;
+        final Integer bookId;
+        int quantity;
+        LocalDateTime addedAt;
+        boolean dirty;
+        // Whether the line has a cart_items row; a removal deletes it, and a line added back after that
+        // is re-inserted with a new cart_item_id, as it would be without the store
+        boolean persisted = true;
+
+        StoredLine(Integer cartItemId, Integer bookId, Integer quantity, LocalDateTime addedAt) {
+            this.cartItemId = cartItemId;
+            this.bookId = bookId;
+            this.quantity = quantity;
+            this.addedAt = addedAt;
+        }
+    }
+}
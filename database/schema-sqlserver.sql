@@ -2,6 +2,11 @@
 -- SQL Server Database
 
 -- Drop existing tables if they exist (for clean setup)
+IF OBJECT_ID('cart_item_removals', 'U') IS NOT NULL DROP TABLE cart_item_removals;
+IF OBJECT_ID('cart_versions', 'U') IS NOT NULL DROP TABLE cart_versions;
+IF OBJECT_ID('order_outbox', 'U') IS NOT NULL DROP TABLE order_outbox;
+IF OBJECT_ID('sales_daily_category', 'U') IS NOT NULL DROP TABLE sales_daily_category;
+IF OBJECT_ID('sales_daily_book', 'U') IS NOT NULL DROP TABLE sales_daily_book;
 IF OBJECT_ID('reviews', 'U') IS NOT NULL DROP TABLE reviews;
 IF OBJECT_ID('order_items', 'U') IS NOT NULL DROP TABLE order_items;
 IF OBJECT_ID('orders', 'U') IS NOT NULL DROP TABLE orders;
@@ -71,11 +76,14 @@ CREATE TABLE cart_items (
     book_id INT NOT NULL,
     quantity INT NOT NULL DEFAULT 1,
     added_at DATETIME2 DEFAULT GETDATE(),
+    cart_version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (book_id) REFERENCES books(book_id) ON DELETE CASCADE,
     CONSTRAINT unique_user_book UNIQUE (user_id, book_id)
 );
 CREATE INDEX idx_user_cart ON cart_items(user_id);
+CREATE INDEX idx_cart_version ON cart_items(user_id, cart_version);
+CREATE INDEX idx_cart_user_added ON cart_items(user_id, added_at);
 GO
 
 -- Orders Table
@@ -104,6 +112,7 @@ CREATE TABLE order_items (
     order_item_id INT PRIMARY KEY IDENTITY(1,1),
     order_id INT NOT NULL,
     book_id INT NOT NULL,
+    category_id INT NOT NULL,
     quantity INT NOT NULL,
     price_at_purchase DECIMAL(10, 2) NOT NULL,
     subtotal DECIMAL(10, 2) NOT NULL,
@@ -132,6 +141,68 @@ CREATE INDEX idx_user_reviews ON reviews(user_id);
 CREATE INDEX idx_rating ON reviews(rating);
 GO
 
+-- Sales Rollup Tables (daily counters maintained by the API)
+CREATE TABLE sales_daily_book (
+    rollup_id INT PRIMARY KEY IDENTITY(1,1),
+    sales_date DATE NOT NULL,
+    book_id INT NOT NULL,
+    category_id INT NOT NULL,
+    quantity_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at DATETIME2 DEFAULT GETDATE(),
+    CONSTRAINT unique_sales_date_book UNIQUE (sales_date, book_id)
+);
+CREATE INDEX idx_sales_book ON sales_daily_book(book_id, sales_date);
+GO
+
+CREATE TABLE sales_daily_category (
+    rollup_id INT PRIMARY KEY IDENTITY(1,1),
+    sales_date DATE NOT NULL,
+    category_id INT NOT NULL,
+    quantity_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at DATETIME2 DEFAULT GETDATE(),
+    CONSTRAINT unique_sales_date_category UNIQUE (sales_date, category_id)
+);
+CREATE INDEX idx_sales_category ON sales_daily_category(category_id, sales_date);
+GO
+
+-- Order Outbox Table (order lifecycle events written in the order transaction)
+CREATE TABLE order_outbox (
+    event_id BIGINT PRIMARY KEY IDENTITY(1,1),
+    order_id INT NOT NULL,
+    event_type NVARCHAR(50) NOT NULL,
+    payload NVARCHAR(MAX) NOT NULL,
+    created_at DATETIME2 DEFAULT GETDATE(),
+    published_at DATETIME2 NULL
+);
+CREATE INDEX idx_outbox_unpublished ON order_outbox(event_id) WHERE published_at IS NULL;
+CREATE INDEX idx_outbox_order ON order_outbox(order_id);
+CREATE INDEX idx_outbox_published ON order_outbox(published_at) WHERE published_at IS NOT NULL;
+GO
+
+-- Cart Versions Table (per-user cart version for delta sync)
+CREATE TABLE cart_versions (
+    user_id INT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    reset_version BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME2 DEFAULT GETDATE(),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+GO
+
+-- Cart Item Removals Table (tombstones for removed cart lines, kept until the cart is cleared)
+CREATE TABLE cart_item_removals (
+    cart_item_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    book_id INT NOT NULL,
+    cart_version BIGINT NOT NULL,
+    removed_at DATETIME2 DEFAULT GETDATE(),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+CREATE INDEX idx_removal_version ON cart_item_removals(user_id, cart_version);
+GO
+
 -- Insert sample categories
 INSERT INTO categories (category_name, description) VALUES
 ('Fiction', 'Fictional literature including novels and short stories'),
@@ -2,6 +2,11 @@
 -- MySQL Database
 
 -- Drop existing tables if they exist (for clean setup)
+DROP TABLE IF EXISTS cart_item_removals;
+DROP TABLE IF EXISTS cart_versions;
+DROP TABLE IF EXISTS order_outbox;
+DROP TABLE IF EXISTS sales_daily_category;
+DROP TABLE IF EXISTS sales_daily_book;
 DROP TABLE IF EXISTS reviews;
 DROP TABLE IF EXISTS order_items;
 DROP TABLE IF EXISTS orders;
@@ -67,10 +72,13 @@ CREATE TABLE cart_items (
     book_id INT NOT NULL,
     quantity INT NOT NULL DEFAULT 1,
     added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    cart_version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (book_id) REFERENCES books(book_id) ON DELETE CASCADE,
     UNIQUE KEY unique_user_book (user_id, book_id),
-    INDEX idx_user (user_id)
+    INDEX idx_user (user_id),
+    INDEX idx_cart_version (user_id, cart_version),
+    INDEX idx_cart_user_added (user_id, added_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Orders Table
@@ -98,6 +106,7 @@ CREATE TABLE order_items (
     order_item_id INT PRIMARY KEY AUTO_INCREMENT,
     order_id INT NOT NULL,
     book_id INT NOT NULL,
+    category_id INT NOT NULL,
     quantity INT NOT NULL,
     price_at_purchase DECIMAL(10, 2) NOT NULL,
     subtotal DECIMAL(10, 2) NOT NULL,
@@ -124,6 +133,62 @@ CREATE TABLE reviews (
     INDEX idx_rating (rating)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Sales Rollup Tables (daily counters maintained by the API)
+CREATE TABLE sales_daily_book (
+    rollup_id INT PRIMARY KEY AUTO_INCREMENT,
+    sales_date DATE NOT NULL,
+    book_id INT NOT NULL,
+    category_id INT NOT NULL,
+    quantity_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_sales_date_book (sales_date, book_id),
+    INDEX idx_sales_book (book_id, sales_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE sales_daily_category (
+    rollup_id INT PRIMARY KEY AUTO_INCREMENT,
+    sales_date DATE NOT NULL,
+    category_id INT NOT NULL,
+    quantity_sold INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY unique_sales_date_category (sales_date, category_id),
+    INDEX idx_sales_category (category_id, sales_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Order Outbox Table (order lifecycle events written in the order transaction)
+CREATE TABLE order_outbox (
+    event_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    order_id INT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,
+    INDEX idx_outbox_unpublished (published_at, event_id),
+    INDEX idx_outbox_order (order_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Cart Versions Table (per-user cart version for delta sync)
+CREATE TABLE cart_versions (
+    user_id INT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    reset_version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Cart Item Removals Table (tombstones for removed cart lines, kept until the cart is cleared)
+CREATE TABLE cart_item_removals (
+    cart_item_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    book_id INT NOT NULL,
+    cart_version BIGINT NOT NULL,
+    removed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    INDEX idx_removal_version (user_id, cart_version)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Insert sample categories
 INSERT INTO categories (category_name, description) VALUES
 ('Fiction', 'Fictional literature including novels and short stories'),